@@ -0,0 +1,186 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.annotation.TargetApi;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.os.Build;
+import android.provider.Settings;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+import java.util.ArrayList;
+
+public class AnimationEngine {
+    public interface AnimationCallback {
+        boolean onAnimationFrame(float fraction, long frameTimeNanos);
+        void onAnimationEnd(boolean canceled);
+    }
+
+    public static final long DURATION_INFINITE = -1L;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final int POOL_SIZE = 8;
+    private static final Interpolator INTERPOLATOR_DEFAULT = new AccelerateDecelerateInterpolator();
+
+    private static AnimationEngine instance;
+    public static AnimationEngine getInstance() {
+        if (instance == null) {
+            instance = new AnimationEngine();
+        }
+        return instance;
+    }
+    public static AnimationEngine getInstance(Context context) {
+        AnimationEngine engine = getInstance();
+        if (engine.contentResolver == null) {
+            engine.contentResolver = context.getApplicationContext().getContentResolver();
+        }
+        return engine;
+    }
+
+    private static class Record {
+        private AnimationCallback callback;
+        private Interpolator interpolator;
+        private long startTimeNanos;
+        private long durationNanos;
+    }
+
+    private final ArrayList<Record> active = new ArrayList<Record>();
+    private final ArrayList<Record> pool = new ArrayList<Record>();
+    private boolean ticking = false;
+    private boolean pendingRemovals = false;
+    private ContentResolver contentResolver;
+
+    private final FrameCallbackCompat frameCallback = new FrameCallbackCompat() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            tick(frameTimeNanos);
+        }
+    };
+
+    private AnimationEngine() {}
+
+    public void start(AnimationCallback callback, long durationMillis) {
+        start(callback, durationMillis, INTERPOLATOR_DEFAULT);
+    }
+
+    public void start(AnimationCallback callback, long durationMillis, Interpolator interpolator) {
+        cancel(callback);
+
+        Record record = pool.isEmpty() ? new Record() : pool.remove(pool.size() - 1);
+        record.callback = callback;
+        record.interpolator = interpolator;
+        record.startTimeNanos = System.nanoTime();
+        record.durationNanos = durationMillis < 0 ? DURATION_INFINITE : (long) (durationMillis * getDurationScale() * NANOS_PER_MILLI);
+        active.add(record);
+        frameCallback.post();
+    }
+
+    public void cancel(AnimationCallback callback) {
+        int index = indexOf(callback);
+        if (index < 0) {
+            return;
+        }
+
+        remove(index);
+        callback.onAnimationEnd(true);
+    }
+
+    public boolean isRunning(AnimationCallback callback) {
+        return indexOf(callback) >= 0;
+    }
+
+    public int getActiveCount() {
+        int count = 0;
+        for (int i = 0; i < active.size(); i++) {
+            if (active.get(i).callback != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void tick(long frameTimeNanos) {
+        ticking = true;
+        for (int i = 0, size = active.size(); i < size; i++) {
+            Record record = active.get(i);
+            AnimationCallback callback = record.callback;
+            if (callback == null) {
+                continue;
+            }
+
+            float fraction = 0f;
+            boolean finished = false;
+            if (record.durationNanos > 0) {
+                float elapsed = Math.max(0L, frameTimeNanos - record.startTimeNanos);
+                fraction = Math.min(1f, elapsed / record.durationNanos);
+                finished = fraction >= 1f;
+                if (record.interpolator != null) {
+                    fraction = record.interpolator.getInterpolation(fraction);
+                }
+            } else if (record.durationNanos == 0) {
+                fraction = 1f;
+                finished = true;
+            }
+
+            boolean running = callback.onAnimationFrame(fraction, frameTimeNanos);
+            if ((finished || !running) && record.callback == callback) {
+                remove(i);
+                callback.onAnimationEnd(false);
+            }
+        }
+        ticking = false;
+
+        if (pendingRemovals) {
+            pendingRemovals = false;
+            for (int i = active.size() - 1; i >= 0; i--) {
+                if (active.get(i).callback == null) {
+                    recycle(active.remove(i));
+                }
+            }
+        }
+        if (!active.isEmpty()) {
+            frameCallback.post();
+        }
+    }
+
+    public float getDurationScale() {
+        if (contentResolver == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return 1f;
+        }
+        return readDurationScale(contentResolver);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private static float readDurationScale(ContentResolver contentResolver) {
+        return Math.max(0f, Settings.Global.getFloat(contentResolver, Settings.Global.ANIMATOR_DURATION_SCALE, 1f));
+    }
+
+    private int indexOf(AnimationCallback callback) {
+        for (int i = 0; i < active.size(); i++) {
+            if (active.get(i).callback == callback) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void remove(int index) {
+        if (ticking) {
+            active.get(index).callback = null;
+            pendingRemovals = true;
+        } else {
+            recycle(active.remove(index));
+        }
+        if (!ticking && active.isEmpty()) {
+            frameCallback.remove();
+        }
+    }
+
+    private void recycle(Record record) {
+        record.callback = null;
+        record.interpolator = null;
+        if (pool.size() < POOL_SIZE) {
+            pool.add(record);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.os.Process;
+
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+final class BackgroundExecutor {
+    private static final HashMap<String, Executor> executors = new HashMap<String, Executor>();
+
+    private BackgroundExecutor() {}
+
+    static synchronized Executor get(final String name) {
+        Executor executor = executors.get(name);
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, name);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executors.put(name, executor);
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.view.View;
+
+import java.util.Arrays;
+
+public class BulkDismissAnimator {
+    public interface BulkDismissCallback {
+        void onDismiss(int[] positions);
+    }
+
+    private final SwitcherStrip strip;
+    private final long animationTime;
+    private final AnimationEngine.AnimationCallback animation = new AnimationEngine.AnimationCallback() {
+        @Override
+        public boolean onAnimationFrame(float fraction, long frameTimeNanos) {
+            applyFraction(fraction);
+            return true;
+        }
+
+        @Override
+        public void onAnimationEnd(boolean canceled) {
+            finish();
+        }
+    };
+
+    private int[] positions;
+    private int removedBeforeAnchor;
+    private BulkDismissCallback callback;
+
+    public BulkDismissAnimator(SwitcherStrip strip) {
+        this.strip = strip;
+        this.animationTime = strip.getContext().getResources().getInteger(android.R.integer.config_shortAnimTime);
+    }
+
+    public boolean isRunning() {
+        return positions != null;
+    }
+
+    public void dismissAll(BulkDismissCallback callback) {
+        SwitcherAdapter<?> adapter = strip.getAdapter();
+        int count = adapter != null ? adapter.getItemCount() : 0;
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i;
+        }
+        dismiss(positions, callback);
+    }
+
+    public void dismiss(int[] positions, BulkDismissCallback callback) {
+        if (isRunning()) {
+            throw new IllegalStateException("A bulk dismiss is already running.");
+        }
+
+        this.positions = positions.clone();
+        Arrays.sort(this.positions);
+        int anchor = Arrays.binarySearch(this.positions, strip.getFirstVisiblePosition());
+        this.removedBeforeAnchor = anchor >= 0 ? anchor : -anchor - 1;
+        this.callback = callback;
+        if (this.positions.length == 0) {
+            finish();
+            return;
+        }
+
+        AnimationEngine.getInstance(strip.getContext()).start(animation, animationTime);
+    }
+
+    private void applyFraction(float fraction) {
+        int itemWidth = strip.getItemWidth();
+        for (int i = 0; i < strip.getChildCount(); i++) {
+            View child = strip.getChildAt(i);
+            SwitcherAdapter.ViewHolder holder = strip.getChildViewHolder(child);
+            if (holder == null) {
+                continue;
+            }
+
+            int index = Arrays.binarySearch(positions, holder.getPosition());
+            if (index >= 0) {
+                child.setTranslationY(-child.getHeight() * fraction);
+                child.setAlpha(1f - fraction);
+            } else {
+                int removedBetween = -index - 1 - removedBeforeAnchor;
+                child.setTranslationX(-removedBetween * itemWidth * fraction);
+            }
+        }
+    }
+
+    private void finish() {
+        for (int i = 0; i < strip.getChildCount(); i++) {
+            View child = strip.getChildAt(i);
+            child.setTranslationX(0f);
+            child.setTranslationY(0f);
+            child.setAlpha(1f);
+        }
+
+        int[] positions = this.positions;
+        BulkDismissCallback callback = this.callback;
+        this.positions = null;
+        this.callback = null;
+        if (callback != null) {
+            callback.onDismiss(positions);
+        }
+    }
+}
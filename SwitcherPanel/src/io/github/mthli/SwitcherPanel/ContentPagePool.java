@@ -0,0 +1,80 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ContentPagePool {
+    public interface PageFactory {
+        View createPage(ViewGroup parent, Object key);
+        void releasePage(Object key, View page);
+    }
+    private final PageFactory factory;
+
+    private static final int WARM_PAGE_LIMIT_DEFAULT = 2;
+    private int warmPageLimit = WARM_PAGE_LIMIT_DEFAULT;
+    public int getWarmPageLimit() {
+        return warmPageLimit;
+    }
+    public void setWarmPageLimit(int warmPageLimit) {
+        this.warmPageLimit = Math.max(0, warmPageLimit);
+        trimToSize(this.warmPageLimit);
+    }
+
+    private final LinkedHashMap<Object, View> warmPages = new LinkedHashMap<Object, View>(16, 0.75f, true);
+
+    public ContentPagePool(PageFactory factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("PageFactory may not be null.");
+        }
+        this.factory = factory;
+    }
+
+    public View obtain(ViewGroup parent, Object key) {
+        View page = warmPages.remove(key);
+        if (page == null) {
+            page = factory.createPage(parent, key);
+        }
+        return page;
+    }
+
+    public void recycle(Object key, View page) {
+        if (key == null) {
+            factory.releasePage(null, page);
+            return;
+        }
+
+        View old = warmPages.put(key, page);
+        if (old != null && old != page) {
+            factory.releasePage(key, old);
+        }
+        trimToSize(warmPageLimit);
+    }
+
+    public boolean isWarm(Object key) {
+        return warmPages.containsKey(key);
+    }
+
+    public void release(Object key) {
+        View page = warmPages.remove(key);
+        if (page != null) {
+            factory.releasePage(key, page);
+        }
+    }
+
+    public int getWarmPageCount() {
+        return warmPages.size();
+    }
+
+    public void trimToSize(int size) {
+        Iterator<Map.Entry<Object, View>> iterator = warmPages.entrySet().iterator();
+        while (warmPages.size() > size && iterator.hasNext()) {
+            Map.Entry<Object, View> entry = iterator.next();
+            iterator.remove();
+            factory.releasePage(entry.getKey(), entry.getValue());
+        }
+    }
+}
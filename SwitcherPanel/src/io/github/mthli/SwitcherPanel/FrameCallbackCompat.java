@@ -0,0 +1,97 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+public abstract class FrameCallbackCompat {
+    private static final long FRAME_DELAY_LEGACY = 10;
+    private static Handler handler;
+
+    private ChoreographerImpl choreographerImpl;
+    private Runnable legacyRunnable;
+    private boolean posted = false;
+
+    public abstract void doFrame(long frameTimeNanos);
+
+    public final boolean isPosted() {
+        return posted;
+    }
+
+    public final void post() {
+        if (posted) {
+            return;
+        }
+
+        posted = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (choreographerImpl == null) {
+                choreographerImpl = new ChoreographerImpl(this);
+            }
+            choreographerImpl.post();
+        } else {
+            getHandler().postDelayed(getLegacyRunnable(), FRAME_DELAY_LEGACY);
+        }
+    }
+
+    public final void remove() {
+        if (!posted) {
+            return;
+        }
+
+        posted = false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            choreographerImpl.remove();
+        } else {
+            getHandler().removeCallbacks(getLegacyRunnable());
+        }
+    }
+
+    private void dispatchFrame(long frameTimeNanos) {
+        posted = false;
+        doFrame(frameTimeNanos);
+    }
+
+    private Runnable getLegacyRunnable() {
+        if (legacyRunnable == null) {
+            legacyRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    dispatchFrame(System.nanoTime());
+                }
+            };
+        }
+        return legacyRunnable;
+    }
+
+    private static Handler getHandler() {
+        if (handler == null) {
+            handler = new Handler(Looper.getMainLooper());
+        }
+        return handler;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerImpl implements Choreographer.FrameCallback {
+        private final FrameCallbackCompat owner;
+
+        private ChoreographerImpl(FrameCallbackCompat owner) {
+            this.owner = owner;
+        }
+
+        private void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        private void remove() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            owner.dispatchFrame(frameTimeNanos);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.mthli.SwitcherPanel;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+public class FrameStats {
+    public enum Phase {
+        DRAG,
+        SETTLE,
+        OVERSCROLL,
+        DISMISS_FADE,
+        DISMISS_COLLAPSE
+    }
+
+    public interface FrameListener {
+        void onFrame(long durationNanos);
+    }
+    private final ArrayList<FrameListener> frameListeners = new ArrayList<FrameListener>();
+    public void addFrameListener(FrameListener frameListener) {
+        if (frameListener != null && !frameListeners.contains(frameListener)) {
+            frameListeners.add(frameListener);
+        }
+    }
+    public void removeFrameListener(FrameListener frameListener) {
+        frameListeners.remove(frameListener);
+    }
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final int BUCKET_COUNT = 101;
+    private static final long JANK_THRESHOLD_DEFAULT = 17 * NANOS_PER_MILLI;
+
+    private final long[][] histograms = new long[Phase.values().length][BUCKET_COUNT];
+    private final long[] frameCounts = new long[Phase.values().length];
+    private final long[] jankCounts = new long[Phase.values().length];
+    private final long[] maxDurations = new long[Phase.values().length];
+    private final int[] activeCounts = new int[Phase.values().length];
+    private int activePhases = 0;
+    private long lastFrameTimeNanos = 0L;
+
+    private long jankThresholdNanos = JANK_THRESHOLD_DEFAULT;
+    public long getJankThresholdNanos() {
+        return jankThresholdNanos;
+    }
+    public void setJankThresholdNanos(long jankThresholdNanos) {
+        this.jankThresholdNanos = jankThresholdNanos;
+    }
+
+    private final FrameCallbackCompat frameCallback = new FrameCallbackCompat() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            onFrame(frameTimeNanos);
+        }
+    };
+
+    public void begin(Phase phase) {
+        if (activeCounts[phase.ordinal()]++ == 0) {
+            activePhases++;
+            frameCallback.post();
+        }
+    }
+
+    public void end(Phase phase) {
+        int ordinal = phase.ordinal();
+        if (activeCounts[ordinal] == 0) {
+            return;
+        }
+
+        if (--activeCounts[ordinal] == 0 && --activePhases == 0) {
+            frameCallback.remove();
+            lastFrameTimeNanos = 0L;
+        }
+    }
+
+    public boolean isActive(Phase phase) {
+        return activeCounts[phase.ordinal()] > 0;
+    }
+
+    private void onFrame(long frameTimeNanos) {
+        if (activePhases == 0) {
+            lastFrameTimeNanos = 0L;
+            return;
+        }
+
+        if (lastFrameTimeNanos != 0L) {
+            record(frameTimeNanos - lastFrameTimeNanos);
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+        frameCallback.post();
+    }
+
+    private void record(long durationNanos) {
+        int bucket = (int) Math.min(BUCKET_COUNT - 1, durationNanos / NANOS_PER_MILLI);
+        for (int i = 0; i < activeCounts.length; i++) {
+            if (activeCounts[i] == 0) {
+                continue;
+            }
+
+            histograms[i][bucket]++;
+            frameCounts[i]++;
+            if (durationNanos > jankThresholdNanos) {
+                jankCounts[i]++;
+            }
+            if (durationNanos > maxDurations[i]) {
+                maxDurations[i] = durationNanos;
+            }
+        }
+
+        for (int i = 0; i < frameListeners.size(); i++) {
+            frameListeners.get(i).onFrame(durationNanos);
+        }
+    }
+
+    public long getFrameCount(Phase phase) {
+        return frameCounts[phase.ordinal()];
+    }
+
+    public long getJankCount(Phase phase) {
+        return jankCounts[phase.ordinal()];
+    }
+
+    public long getMaxFrameMillis(Phase phase) {
+        return maxDurations[phase.ordinal()] / NANOS_PER_MILLI;
+    }
+
+    public int getPercentileMillis(Phase phase, float percentile) {
+        long[] histogram = histograms[phase.ordinal()];
+        long count = frameCounts[phase.ordinal()];
+        if (count == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(count * Math.max(0f, Math.min(1f, percentile)));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += histogram[i];
+            if (seen >= threshold) {
+                return i;
+            }
+        }
+        return BUCKET_COUNT - 1;
+    }
+
+    public long[] getHistogram(Phase phase) {
+        return histograms[phase.ordinal()].clone();
+    }
+
+    public void reset() {
+        for (int i = 0; i < histograms.length; i++) {
+            for (int j = 0; j < BUCKET_COUNT; j++) {
+                histograms[i][j] = 0;
+            }
+            frameCounts[i] = 0;
+            jankCounts[i] = 0;
+            maxDurations[i] = 0;
+        }
+    }
+
+    public String export() {
+        StringBuilder builder = new StringBuilder("phase,frames,janky,p50,p90,p95,p99,max\n");
+        for (Phase phase : Phase.values()) {
+            builder.append(String.format(Locale.US, "%s,%d,%d,%d,%d,%d,%d,%d\n",
+                    phase.name(),
+                    getFrameCount(phase),
+                    getJankCount(phase),
+                    getPercentileMillis(phase, 0.5f),
+                    getPercentileMillis(phase, 0.9f),
+                    getPercentileMillis(phase, 0.95f),
+                    getPercentileMillis(phase, 0.99f),
+                    getMaxFrameMillis(phase)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.view.MotionEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class GestureRecorder {
+    private static final int MAX_DELTA_MILLIS = 0xFFFF;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private long lastEventTime = -1L;
+    private int eventCount = 0;
+
+    public GestureRecorder() {
+        try {
+            out.writeInt(GestureRecording.MAGIC);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void record(MotionEvent motionEvent) {
+        try {
+            int pointerCount = Math.min(GestureRecording.MAX_POINTERS, motionEvent.getPointerCount());
+            if (motionEvent.getActionMasked() == MotionEvent.ACTION_MOVE) {
+                for (int h = 0; h < motionEvent.getHistorySize(); h++) {
+                    writeHeader(motionEvent.getHistoricalEventTime(h), MotionEvent.ACTION_MOVE, 0, pointerCount);
+                    for (int p = 0; p < pointerCount; p++) {
+                        writePointer(motionEvent, p, motionEvent.getHistoricalX(p, h), motionEvent.getHistoricalY(p, h));
+                    }
+                }
+            }
+
+            writeHeader(motionEvent.getEventTime(), motionEvent.getActionMasked(), motionEvent.getActionIndex(), pointerCount);
+            for (int p = 0; p < pointerCount; p++) {
+                writePointer(motionEvent, p, motionEvent.getX(p), motionEvent.getY(p));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void writeHeader(long eventTime, int action, int actionIndex, int pointerCount) throws IOException {
+        long delta = lastEventTime < 0 ? 0 : eventTime - lastEventTime;
+        lastEventTime = eventTime;
+        out.writeShort((int) Math.max(0, Math.min(MAX_DELTA_MILLIS, delta)));
+        out.writeByte(action);
+        out.writeByte(actionIndex);
+        out.writeByte(pointerCount);
+        eventCount++;
+    }
+
+    private void writePointer(MotionEvent motionEvent, int index, float x, float y) throws IOException {
+        out.writeByte(motionEvent.getPointerId(index));
+        out.writeByte(motionEvent.getToolType(index));
+        out.writeFloat(x);
+        out.writeFloat(y);
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getSize() {
+        return buffer.size();
+    }
+
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        buffer.writeTo(outputStream);
+    }
+
+    public void reset() {
+        buffer.reset();
+        lastEventTime = -1L;
+        eventCount = 0;
+        try {
+            out.writeInt(GestureRecording.MAGIC);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.mthli.SwitcherPanel;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class GestureRecording {
+    static final int MAGIC = 0x53504731;
+    static final int MAX_POINTERS = 10;
+
+    private final DataInputStream in;
+    private final int[] pointerIds = new int[MAX_POINTERS];
+    private final int[] toolTypes = new int[MAX_POINTERS];
+    private final float[] xs = new float[MAX_POINTERS];
+    private final float[] ys = new float[MAX_POINTERS];
+    private int deltaMillis = 0;
+    private int actionMasked = 0;
+    private int actionIndex = 0;
+    private int pointerCount = 0;
+
+    public GestureRecording(InputStream inputStream) throws IOException {
+        this.in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a gesture recording.");
+        }
+    }
+
+    public boolean next() throws IOException {
+        try {
+            deltaMillis = in.readUnsignedShort();
+        } catch (EOFException e) {
+            return false;
+        }
+
+        actionMasked = in.readUnsignedByte();
+        actionIndex = in.readUnsignedByte();
+        pointerCount = in.readUnsignedByte();
+        if (pointerCount > MAX_POINTERS) {
+            throw new IOException("Gesture recording has too many pointers.");
+        }
+        for (int p = 0; p < pointerCount; p++) {
+            pointerIds[p] = in.readUnsignedByte();
+            toolTypes[p] = in.readUnsignedByte();
+            xs[p] = in.readFloat();
+            ys[p] = in.readFloat();
+        }
+        return true;
+    }
+
+    public int getDeltaMillis() {
+        return deltaMillis;
+    }
+
+    public int getActionMasked() {
+        return actionMasked;
+    }
+
+    public int getActionIndex() {
+        return actionIndex;
+    }
+
+    public int getPointerCount() {
+        return pointerCount;
+    }
+
+    public int getPointerId(int index) {
+        return pointerIds[index];
+    }
+
+    public int getToolType(int index) {
+        return toolTypes[index];
+    }
+
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    public float getY(int index) {
+        return ys[index];
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.os.Debug;
+import android.os.SystemClock;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+public class GestureReplayer {
+    public static class Report {
+        private int eventCount = 0;
+        private int[] actions = new int[64];
+        private long[] dispatchNanos = new long[64];
+        private int[] allocations = new int[64];
+        private boolean[] layouts = new boolean[64];
+        private long layoutNanos = 0L;
+        private int layoutPasses = 0;
+
+        private void add(int action, long dispatch, int allocation, boolean layout) {
+            if (eventCount == actions.length) {
+                int size = eventCount * 2;
+                int[] newActions = new int[size];
+                long[] newDispatchNanos = new long[size];
+                int[] newAllocations = new int[size];
+                boolean[] newLayouts = new boolean[size];
+                System.arraycopy(actions, 0, newActions, 0, eventCount);
+                System.arraycopy(dispatchNanos, 0, newDispatchNanos, 0, eventCount);
+                System.arraycopy(allocations, 0, newAllocations, 0, eventCount);
+                System.arraycopy(layouts, 0, newLayouts, 0, eventCount);
+                actions = newActions;
+                dispatchNanos = newDispatchNanos;
+                allocations = newAllocations;
+                layouts = newLayouts;
+            }
+
+            actions[eventCount] = action;
+            dispatchNanos[eventCount] = dispatch;
+            allocations[eventCount] = allocation;
+            layouts[eventCount] = layout;
+            eventCount++;
+        }
+
+        public int getEventCount() {
+            return eventCount;
+        }
+
+        public int getAction(int index) {
+            return actions[index];
+        }
+
+        public long getDispatchNanos(int index) {
+            return dispatchNanos[index];
+        }
+
+        public int getAllocations(int index) {
+            return allocations[index];
+        }
+
+        public int getLayoutPasses() {
+            return layoutPasses;
+        }
+
+        public long getLayoutNanos() {
+            return layoutNanos;
+        }
+
+        public long getTotalDispatchNanos() {
+            long total = 0L;
+            for (int i = 0; i < eventCount; i++) {
+                total += dispatchNanos[i];
+            }
+            return total;
+        }
+
+        public int getTotalAllocations() {
+            int total = 0;
+            for (int i = 0; i < eventCount; i++) {
+                total += allocations[i];
+            }
+            return total;
+        }
+
+        public String export() {
+            StringBuilder builder = new StringBuilder("event,action,dispatch_us,allocations,layout\n");
+            for (int i = 0; i < eventCount; i++) {
+                builder.append(String.format(Locale.US, "%d,%d,%d,%d,%d\n",
+                        i,
+                        actions[i],
+                        dispatchNanos[i] / 1000L,
+                        allocations[i],
+                        layouts[i] ? 1 : 0));
+            }
+            return builder.toString();
+        }
+    }
+
+    private final MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[GestureRecording.MAX_POINTERS];
+    private final MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[GestureRecording.MAX_POINTERS];
+
+    public GestureReplayer() {
+        for (int i = 0; i < GestureRecording.MAX_POINTERS; i++) {
+            properties[i] = new MotionEvent.PointerProperties();
+            coords[i] = new MotionEvent.PointerCoords();
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    public Report replay(View target, InputStream inputStream) throws IOException {
+        GestureRecording recording = new GestureRecording(inputStream);
+        Report report = new Report();
+        long eventTime = SystemClock.uptimeMillis();
+        long downTime = eventTime;
+        Debug.startAllocCounting();
+        try {
+            while (recording.next()) {
+                int actionMasked = recording.getActionMasked();
+                int pointerCount = recording.getPointerCount();
+                for (int p = 0; p < pointerCount; p++) {
+                    properties[p].clear();
+                    properties[p].id = recording.getPointerId(p);
+                    properties[p].toolType = recording.getToolType(p);
+                    coords[p].clear();
+                    coords[p].x = recording.getX(p);
+                    coords[p].y = recording.getY(p);
+                    coords[p].pressure = 1f;
+                    coords[p].size = 1f;
+                }
+
+                eventTime += recording.getDeltaMillis();
+                if (actionMasked == MotionEvent.ACTION_DOWN) {
+                    downTime = eventTime;
+                }
+                int action = actionMasked | (recording.getActionIndex() << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+                MotionEvent motionEvent = MotionEvent.obtain(downTime, eventTime, action, pointerCount, properties, coords,
+                        0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+
+                int allocStart = Debug.getThreadAllocCount();
+                long start = System.nanoTime();
+                target.dispatchTouchEvent(motionEvent);
+                long dispatch = System.nanoTime() - start;
+                int allocation = Debug.getThreadAllocCount() - allocStart;
+                motionEvent.recycle();
+
+                boolean layout = target.isLayoutRequested();
+                if (layout) {
+                    start = System.nanoTime();
+                    target.measure(View.MeasureSpec.makeMeasureSpec(target.getWidth(), View.MeasureSpec.EXACTLY),
+                            View.MeasureSpec.makeMeasureSpec(target.getHeight(), View.MeasureSpec.EXACTLY));
+                    target.layout(target.getLeft(), target.getTop(), target.getRight(), target.getBottom());
+                    report.layoutNanos += System.nanoTime() - start;
+                    report.layoutPasses++;
+                }
+                report.add(actionMasked, dispatch, allocation, layout);
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        return report;
+    }
+}
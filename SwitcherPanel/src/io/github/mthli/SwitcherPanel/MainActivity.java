@@ -7,10 +7,43 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
-import android.widget.LinearLayout;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class MainActivity extends Activity {
     private SwitcherPanel switcherPanel;
+    private final List<String> cards = new ArrayList<String>();
+    private CardAdapter cardAdapter;
+    private BulkDismissAnimator bulkDismissAnimator;
+
+    private static class CardHolder extends SwitcherAdapter.ViewHolder {
+        private final Button button;
+
+        public CardHolder(Button button) {
+            super(button);
+            this.button = button;
+        }
+    }
+
+    private class CardAdapter extends SwitcherAdapter<CardHolder> {
+        @Override
+        public int getItemCount() {
+            return cards.size();
+        }
+
+        @Override
+        public CardHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            Button button = new Button(MainActivity.this);
+            button.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            return new CardHolder(button);
+        }
+
+        @Override
+        public void onBindViewHolder(CardHolder holder, int position) {
+            holder.button.setText(cards.get(position));
+        }
+    }
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -18,28 +51,54 @@ public class MainActivity extends Activity {
         setContentView(R.layout.main);
         switcherPanel = (SwitcherPanel) findViewById(R.id.switcher_panel);
 
-        final LinearLayout switcherContainer = (LinearLayout) findViewById(R.id.switcher_container);
-        for (int i = 0; i < 16; i++) {
-            final Button button = new Button(this);
-            button.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.MATCH_PARENT));
-            button.setText(String.valueOf(i));
-            button.setOnTouchListener(new SwipeToDismissListener(
-                    button,
-                    null,
-                    new SwipeToDismissListener.DismissCallback() {
-                        @Override
-                        public boolean canDismiss(Object token) {
-                            return true;
-                        }
-
-                        @Override
-                        public void onDismiss(View view, Object token) {
-                            switcherContainer.removeView(button);
-                        }
-                    }
-            ));
-            switcherContainer.addView(button);
+        for (int i = 0; i < 128; i++) {
+            cards.add(String.valueOf(i));
         }
+        switcherPanel.setOnSwitcherInflateListener(new SwitcherPanel.OnSwitcherInflateListener() {
+            @Override
+            public void onSwitcherInflated(View switcherView) {
+                bindSwitcher((SwitcherStrip) switcherView);
+            }
+        });
+        switcherPanel.setSwitcherPrewarmEnabled(true);
+    }
+
+    private void bindSwitcher(SwitcherStrip switcherStrip) {
+        final CardAdapter adapter = new CardAdapter();
+        switcherStrip.setAdapter(adapter);
+        cardAdapter = adapter;
+        bulkDismissAnimator = new BulkDismissAnimator(switcherStrip);
+        new SwipeToDismissCoordinator(switcherStrip, new SwipeToDismissListener.DismissCallback() {
+            @Override
+            public boolean canDismiss(Object token) {
+                return token != null;
+            }
+
+            @Override
+            public void onDismiss(View view, Object token) {
+                int position = ((CardHolder) token).getPosition();
+                if (position != SwitcherAdapter.NO_POSITION) {
+                    cards.remove(position);
+                    adapter.notifyItemRemoved(position);
+                }
+            }
+        }).attach();
+    }
+
+    private void closeAllCards() {
+        if (bulkDismissAnimator == null || bulkDismissAnimator.isRunning()) {
+            return;
+        }
+
+        bulkDismissAnimator.dismissAll(new BulkDismissAnimator.BulkDismissCallback() {
+            @Override
+            public void onDismiss(int[] positions) {
+                for (int i = positions.length - 1; i >= 0; i--) {
+                    cards.remove(positions[i]);
+                }
+                cardAdapter.notifyItemsRemoved(positions);
+            }
+        });
     }
 
     @Override
@@ -54,6 +113,9 @@ public class MainActivity extends Activity {
             case R.id.main_menu_collapsed:
                 switcherPanel.collapsed();
                 break;
+            case R.id.main_menu_close_all:
+                closeAllCards();
+                break;
             default:
                 break;
         }
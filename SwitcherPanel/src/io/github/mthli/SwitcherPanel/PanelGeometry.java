@@ -0,0 +1,39 @@
+package io.github.mthli.SwitcherPanel;
+
+public class PanelGeometry {
+    public static final int MATCH_PARENT = -1;
+    public static final int WRAP_CONTENT = -2;
+
+    private static final int MODE_SHIFT = 30;
+    private static final int MODE_MASK = 0x3 << MODE_SHIFT;
+    public static final int UNSPECIFIED = 0;
+    public static final int EXACTLY = 1 << MODE_SHIFT;
+    public static final int AT_MOST = 2 << MODE_SHIFT;
+
+    public static int computeTopPosition(int height, int paddingBottom, int coverHeight, int slideRange, float slideOffset) {
+        int slidePixelOffset = (int) (slideOffset * slideRange);
+        return height - paddingBottom - coverHeight - slidePixelOffset;
+    }
+
+    public static float computeSlideOffset(int collapsedTop, int slideRange, int topPosition) {
+        return (collapsedTop - ((float) topPosition)) / ((float) slideRange);
+    }
+
+    public static int clampTop(int top, int expandedTop, int collapsedTop) {
+        return Math.min(Math.max(top, expandedTop), collapsedTop);
+    }
+
+    public static int makeMeasureSpec(int size, int mode) {
+        return (size & ~MODE_MASK) | (mode & MODE_MASK);
+    }
+
+    public static int childMeasureSpec(int available, int dimension) {
+        if (dimension == WRAP_CONTENT) {
+            return makeMeasureSpec(available, AT_MOST);
+        } else if (dimension == MATCH_PARENT) {
+            return makeMeasureSpec(available, EXACTLY);
+        } else {
+            return makeMeasureSpec(dimension, EXACTLY);
+        }
+    }
+}
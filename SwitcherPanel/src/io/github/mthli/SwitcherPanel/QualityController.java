@@ -0,0 +1,140 @@
+package io.github.mthli.SwitcherPanel;
+
+public class QualityController implements FrameStats.FrameListener {
+    public enum Quality {
+        FULL,
+        NO_FADE,
+        NO_SHADOW,
+        NO_PARALLAX
+    }
+
+    public interface QualityListener {
+        void onQualityChanged(Quality quality);
+    }
+    private QualityListener qualityListener;
+    public void setQualityListener(QualityListener qualityListener) {
+        this.qualityListener = qualityListener;
+    }
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final long JANK_THRESHOLD_DEFAULT = 17 * NANOS_PER_MILLI;
+    private static final int WINDOW_SIZE = 30;
+    private static final int DOWNGRADE_JANK_COUNT = 6;
+    private static final int UPGRADE_FRAME_COUNT = 120;
+
+    private long jankThresholdNanos = JANK_THRESHOLD_DEFAULT;
+    public long getJankThresholdNanos() {
+        return jankThresholdNanos;
+    }
+    public void setJankThresholdNanos(long jankThresholdNanos) {
+        this.jankThresholdNanos = jankThresholdNanos;
+    }
+
+    private Quality pinnedQuality;
+    public Quality getPinnedQuality() {
+        return pinnedQuality;
+    }
+    public void setPinnedQuality(Quality pinnedQuality) {
+        Quality old = getQuality();
+        this.pinnedQuality = pinnedQuality;
+        resetWindow();
+        dispatchIfChanged(old);
+    }
+
+    private Quality quality = Quality.FULL;
+    public Quality getQuality() {
+        return pinnedQuality != null ? pinnedQuality : quality;
+    }
+
+    private final boolean[] window = new boolean[WINDOW_SIZE];
+    private int windowIndex = 0;
+    private int windowFrames = 0;
+    private int windowJanks = 0;
+    private int smoothFrames = 0;
+
+    private final FrameStats ownFrameStats = new FrameStats();
+    private FrameStats frameStats;
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+    public void setFrameStats(FrameStats frameStats) {
+        FrameStats source = frameStats != null ? frameStats : ownFrameStats;
+        if (source == this.frameStats) {
+            return;
+        }
+
+        if (this.frameStats != null) {
+            this.frameStats.removeFrameListener(this);
+        }
+        this.frameStats = source;
+        source.addFrameListener(this);
+    }
+
+    public QualityController() {
+        setFrameStats(null);
+    }
+
+    public boolean isFadeEnabled() {
+        return getQuality() == Quality.FULL;
+    }
+
+    public boolean isShadowEnabled() {
+        return getQuality().ordinal() < Quality.NO_SHADOW.ordinal();
+    }
+
+    public boolean isParallaxEnabled() {
+        return getQuality().ordinal() < Quality.NO_PARALLAX.ordinal();
+    }
+
+    @Override
+    public void onFrame(long durationNanos) {
+        record(durationNanos);
+    }
+
+    public void record(long durationNanos) {
+        if (pinnedQuality != null) {
+            return;
+        }
+
+        boolean janky = durationNanos > jankThresholdNanos;
+        if (windowFrames == WINDOW_SIZE && window[windowIndex]) {
+            windowJanks--;
+        }
+        window[windowIndex] = janky;
+        windowIndex = (windowIndex + 1) % WINDOW_SIZE;
+        windowFrames = Math.min(WINDOW_SIZE, windowFrames + 1);
+        if (janky) {
+            windowJanks++;
+            smoothFrames = 0;
+        } else {
+            smoothFrames++;
+        }
+
+        Quality old = quality;
+        if (windowJanks >= DOWNGRADE_JANK_COUNT && quality != Quality.NO_PARALLAX) {
+            quality = Quality.values()[quality.ordinal() + 1];
+            resetWindow();
+        } else if (smoothFrames >= UPGRADE_FRAME_COUNT && quality != Quality.FULL) {
+            quality = Quality.values()[quality.ordinal() - 1];
+            resetWindow();
+        }
+        dispatchIfChanged(old);
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            window[i] = false;
+        }
+        windowIndex = 0;
+        windowFrames = 0;
+        windowJanks = 0;
+        smoothFrames = 0;
+    }
+
+    private void dispatchIfChanged(Quality old) {
+        Quality current = getQuality();
+        if (current != old && qualityListener != null) {
+            qualityListener.onQualityChanged(current);
+        }
+    }
+}
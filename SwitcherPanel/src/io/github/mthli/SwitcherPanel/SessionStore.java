@@ -0,0 +1,520 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+public class SessionStore {
+    public interface PreviewListener {
+        void onPreviewLoaded(String key, Bitmap bitmap);
+    }
+
+    private static final int MAGIC = 0x53505331;
+    private static final byte RECORD_CARD = 1;
+    private static final byte RECORD_PREVIEW = 2;
+    private static final byte RECORD_REMOVE = 3;
+    private static final byte RECORD_ORDER = 4;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int PREVIEW_WIDTH_DEFAULT = 256;
+    private int previewWidth = PREVIEW_WIDTH_DEFAULT;
+    public int getPreviewWidth() {
+        return previewWidth;
+    }
+    public void setPreviewWidth(int previewWidth) {
+        this.previewWidth = Math.max(1, previewWidth);
+    }
+
+    private static final int PREVIEW_QUALITY_DEFAULT = 80;
+    private int previewQuality = PREVIEW_QUALITY_DEFAULT;
+    public void setPreviewQuality(int previewQuality) {
+        this.previewQuality = Math.max(0, Math.min(100, previewQuality));
+    }
+
+    private Executor executor;
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    private static class RecordOutputStream extends DataOutputStream {
+        private RecordOutputStream(OutputStream out, int offset) {
+            super(new BufferedOutputStream(out));
+            this.written = offset;
+        }
+    }
+
+    private static class Entry {
+        private String title;
+        private long previewOffset = -1L;
+        private int previewLength = 0;
+    }
+
+    private final File file;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ArrayList<String> order = new ArrayList<String>();
+    private final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+
+    private MappedByteBuffer mapped;
+    private DataOutputStream out;
+    private long length = 0L;
+    private byte[] readBuffer = new byte[0];
+
+    public SessionStore(File file) {
+        this.file = file;
+    }
+
+    public synchronized void restore() throws IOException {
+        order.clear();
+        entries.clear();
+        length = 0L;
+        if (!file.exists() || file.length() < 4) {
+            return;
+        }
+
+        map(file.length());
+        if (mapped.getInt() != MAGIC) {
+            throw new IOException("Not a session store.");
+        }
+
+        long valid = mapped.position();
+        try {
+            while (mapped.hasRemaining()) {
+                byte type = mapped.get();
+                String key = readString();
+                if (type == RECORD_CARD) {
+                    String title = readString();
+                    obtainEntry(key).title = title;
+                    if (!order.contains(key)) {
+                        order.add(key);
+                    }
+                } else if (type == RECORD_PREVIEW) {
+                    int previewLength = mapped.getInt();
+                    int previewOffset = mapped.position();
+                    if (previewLength < 0 || previewLength > mapped.remaining()) {
+                        break;
+                    }
+                    mapped.position(previewOffset + previewLength);
+
+                    Entry entry = obtainEntry(key);
+                    entry.previewOffset = previewOffset;
+                    entry.previewLength = previewLength;
+                } else if (type == RECORD_REMOVE) {
+                    entries.remove(key);
+                    order.remove(key);
+                } else if (type == RECORD_ORDER) {
+                    int count = mapped.getInt();
+                    ArrayList<String> keys = new ArrayList<String>(Math.max(0, Math.min(count, 1024)));
+                    if (count > 0) {
+                        keys.add(key);
+                    }
+                    for (int i = 1; i < count; i++) {
+                        keys.add(readString());
+                    }
+                    order.clear();
+                    order.addAll(keys);
+                } else {
+                    break;
+                }
+                valid = mapped.position();
+            }
+        } catch (BufferUnderflowException e) {
+            // Torn tail from an interrupted append, dropped on the next write.
+        }
+        length = valid;
+    }
+
+    public synchronized int getCardCount() {
+        return order.size();
+    }
+
+    public synchronized String getKey(int position) {
+        return order.get(position);
+    }
+
+    public synchronized List<String> getKeys() {
+        return new ArrayList<String>(order);
+    }
+
+    public synchronized String getTitle(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.title : null;
+    }
+
+    public synchronized boolean hasPreview(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.previewOffset >= 0;
+    }
+
+    public long getFileLength() {
+        return length;
+    }
+
+    public void putCard(final String key, final String title) {
+        synchronized (this) {
+            obtainEntry(key).title = title;
+            if (!order.contains(key)) {
+                order.add(key);
+            }
+        }
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                appendCard(key, title);
+            }
+        });
+    }
+
+    public void putPreview(final String key, Bitmap bitmap) {
+        final Bitmap copy;
+        if (bitmap.getWidth() > previewWidth) {
+            int height = Math.max(1, bitmap.getHeight() * previewWidth / bitmap.getWidth());
+            copy = Bitmap.createScaledBitmap(bitmap, previewWidth, height, true);
+        } else {
+            copy = bitmap.copy(Bitmap.Config.ARGB_8888, false);
+        }
+
+        final int quality = previewQuality;
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                copy.compress(Bitmap.CompressFormat.WEBP, quality, bytes);
+                copy.recycle();
+                appendPreview(key, bytes.toByteArray());
+            }
+        });
+    }
+
+    public void removeCard(final String key) {
+        synchronized (this) {
+            entries.remove(key);
+            order.remove(key);
+        }
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                appendRemove(key);
+            }
+        });
+    }
+
+    public void setOrder(List<String> keys) {
+        final ArrayList<String> copy = new ArrayList<String>(keys);
+        synchronized (this) {
+            order.clear();
+            order.addAll(copy);
+        }
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                appendOrder(copy);
+            }
+        });
+    }
+
+    public Bitmap decodePreview(String key) {
+        byte[] bytes = readPreview(key);
+        return bytes != null ? BitmapFactory.decodeByteArray(bytes, 0, bytes.length) : null;
+    }
+
+    private synchronized byte[] readPreview(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.previewOffset < 0) {
+            return null;
+        }
+
+        try {
+            flush();
+            if (mapped == null || entry.previewOffset + entry.previewLength > mapped.capacity()) {
+                map(length);
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        try {
+            byte[] bytes = new byte[entry.previewLength];
+            mapped.position((int) entry.previewOffset);
+            mapped.get(bytes);
+            return bytes;
+        } catch (BufferUnderflowException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public void loadPreviews(int start, int end, final PreviewListener listener) {
+        final ArrayList<String> keys = new ArrayList<String>();
+        synchronized (this) {
+            for (int i = Math.max(0, start); i <= end && i < order.size(); i++) {
+                keys.add(order.get(i));
+            }
+        }
+
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                for (final String key : keys) {
+                    final Bitmap bitmap = decodePreview(key);
+                    if (bitmap == null) {
+                        continue;
+                    }
+
+                    handler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onPreviewLoaded(key, bitmap);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    public void compact() {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                rewrite();
+            }
+        });
+    }
+
+    public void close() {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (SessionStore.this) {
+                    closeOutput();
+                    mapped = null;
+                }
+            }
+        });
+    }
+
+    private synchronized void appendCard(String key, String title) {
+        try {
+            DataOutputStream out = openOutput();
+            out.writeByte(RECORD_CARD);
+            writeString(out, key);
+            writeString(out, title);
+            out.flush();
+            length = out.size();
+        } catch (IOException e) {
+            closeOutput();
+        }
+    }
+
+    private synchronized void appendPreview(String key, byte[] bytes) {
+        Entry entry = obtainEntry(key);
+        try {
+            DataOutputStream out = openOutput();
+            out.writeByte(RECORD_PREVIEW);
+            writeString(out, key);
+            out.writeInt(bytes.length);
+            long offset = out.size();
+            out.write(bytes);
+            out.flush();
+            length = out.size();
+            entry.previewOffset = offset;
+            entry.previewLength = bytes.length;
+        } catch (IOException e) {
+            closeOutput();
+        }
+    }
+
+    private synchronized void appendRemove(String key) {
+        try {
+            DataOutputStream out = openOutput();
+            out.writeByte(RECORD_REMOVE);
+            writeString(out, key);
+            out.flush();
+            length = out.size();
+        } catch (IOException e) {
+            closeOutput();
+        }
+    }
+
+    private synchronized void appendOrder(List<String> keys) {
+        try {
+            DataOutputStream out = openOutput();
+            out.writeByte(RECORD_ORDER);
+            writeString(out, keys.isEmpty() ? "" : keys.get(0));
+            out.writeInt(keys.size());
+            for (int i = 1; i < keys.size(); i++) {
+                writeString(out, keys.get(i));
+            }
+            out.flush();
+            length = out.size();
+        } catch (IOException e) {
+            closeOutput();
+        }
+    }
+
+    private synchronized void rewrite() {
+        File temp = new File(file.getPath() + ".tmp");
+        ArrayList<String> keys = new ArrayList<String>(order);
+        HashMap<String, byte[]> previews = new HashMap<String, byte[]>();
+        for (String key : keys) {
+            byte[] bytes = readPreview(key);
+            if (bytes != null) {
+                previews.put(key, bytes);
+            }
+        }
+
+        closeOutput();
+        mapped = null;
+        HashMap<String, Integer> offsets = new HashMap<String, Integer>();
+        DataOutputStream rewritten = null;
+        try {
+            rewritten = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            rewritten.writeInt(MAGIC);
+            for (String key : keys) {
+                Entry entry = entries.get(key);
+                rewritten.writeByte(RECORD_CARD);
+                writeString(rewritten, key);
+                writeString(rewritten, entry != null && entry.title != null ? entry.title : "");
+
+                byte[] bytes = previews.get(key);
+                if (bytes != null) {
+                    rewritten.writeByte(RECORD_PREVIEW);
+                    writeString(rewritten, key);
+                    rewritten.writeInt(bytes.length);
+                    offsets.put(key, rewritten.size());
+                    rewritten.write(bytes);
+                }
+            }
+            rewritten.close();
+            rewritten = null;
+
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                return;
+            }
+
+            length = file.length();
+            for (String key : offsets.keySet()) {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    entry.previewOffset = offsets.get(key);
+                    entry.previewLength = previews.get(key).length;
+                }
+            }
+        } catch (IOException e) {
+            temp.delete();
+        } finally {
+            if (rewritten != null) {
+                try {
+                    rewritten.close();
+                } catch (IOException e) {
+                    // Ignore.
+                }
+            }
+        }
+    }
+
+    private Entry obtainEntry(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private DataOutputStream openOutput() throws IOException {
+        if (out != null) {
+            return out;
+        }
+
+        boolean fresh = !file.exists() || length < 4;
+        if (!fresh && file.length() != length) {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                randomAccessFile.setLength(length);
+            } finally {
+                randomAccessFile.close();
+            }
+        }
+
+        out = new RecordOutputStream(new FileOutputStream(file, !fresh), fresh ? 0 : (int) length);
+        if (fresh) {
+            out.writeInt(MAGIC);
+        }
+        return out;
+    }
+
+    private void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    private void closeOutput() {
+        if (out == null) {
+            return;
+        }
+
+        try {
+            out.close();
+        } catch (IOException e) {
+            // Ignore.
+        }
+        out = null;
+    }
+
+    private void map(long size) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, channel.size()));
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private String readString() {
+        int size = mapped.getShort() & 0xFFFF;
+        if (readBuffer.length < size) {
+            readBuffer = new byte[size];
+        }
+        mapped.get(readBuffer, 0, size);
+        return new String(readBuffer, 0, size, UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("String is too long for the session store.");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private void execute(Runnable runnable) {
+        getExecutor().execute(runnable);
+    }
+
+    private Executor getExecutor() {
+        return executor != null ? executor : BackgroundExecutor.get("SessionStore");
+    }
+}
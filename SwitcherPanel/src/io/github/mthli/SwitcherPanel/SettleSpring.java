@@ -0,0 +1,96 @@
+package io.github.mthli.SwitcherPanel;
+
+public class SettleSpring {
+    private static final float STIFFNESS_DEFAULT = 600f;
+    private static final float DAMPING_RATIO_DEFAULT = 0.9f;
+    private static final float PROJECTION_TIME = 0.2f;
+    private static final float MAX_STEP = 0.004f;
+    private static final float REST_DISTANCE = 0.5f;
+    private static final float REST_VELOCITY = 20f;
+
+    private float stiffness = STIFFNESS_DEFAULT;
+    public float getStiffness() {
+        return stiffness;
+    }
+    public void setStiffness(float stiffness) {
+        this.stiffness = stiffness;
+    }
+
+    private float dampingRatio = DAMPING_RATIO_DEFAULT;
+    public float getDampingRatio() {
+        return dampingRatio;
+    }
+    public void setDampingRatio(float dampingRatio) {
+        this.dampingRatio = dampingRatio;
+    }
+
+    private float position;
+    private float velocity;
+    private float target;
+    private boolean running = false;
+
+    public static int chooseTarget(int position, float velocity, int expandedTop, int collapsedTop) {
+        float projected = position + velocity * PROJECTION_TIME;
+        return Math.abs(projected - expandedTop) < Math.abs(projected - collapsedTop) ? expandedTop : collapsedTop;
+    }
+
+    public void start(float position, float velocity, float target) {
+        this.position = position;
+        this.velocity = velocity;
+        this.target = target;
+        this.running = true;
+    }
+
+    public void stop() {
+        running = false;
+        velocity = 0f;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public float getPosition() {
+        return position;
+    }
+
+    public float getVelocity() {
+        return velocity;
+    }
+
+    public float getTarget() {
+        return target;
+    }
+
+    public void clamp(float min, float max) {
+        if (position < min) {
+            position = min;
+            velocity = Math.max(0f, velocity);
+        } else if (position > max) {
+            position = max;
+            velocity = Math.min(0f, velocity);
+        }
+    }
+
+    public boolean step(float seconds) {
+        if (!running) {
+            return false;
+        }
+
+        float damping = 2f * dampingRatio * (float) Math.sqrt(stiffness);
+        while (seconds > 0f) {
+            float dt = Math.min(seconds, MAX_STEP);
+            float acceleration = -stiffness * (position - target) - damping * velocity;
+            velocity += acceleration * dt;
+            position += velocity * dt;
+            seconds -= dt;
+        }
+
+        if (Math.abs(position - target) < REST_DISTANCE && Math.abs(velocity) < REST_VELOCITY) {
+            position = target;
+            velocity = 0f;
+            running = false;
+        }
+        return running;
+    }
+}
@@ -0,0 +1,180 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Picture;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.util.LruCache;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+public class SnapshotCache {
+    public interface SnapshotListener {
+        void onSnapshot(Object key, Bitmap bitmap);
+    }
+    private SnapshotListener snapshotListener;
+    public void setSnapshotListener(SnapshotListener snapshotListener) {
+        this.snapshotListener = snapshotListener;
+    }
+
+    private static final float SCALE_DEFAULT = 0.25f;
+    private float scale = SCALE_DEFAULT;
+    public float getScale() {
+        return scale;
+    }
+    public void setScale(float scale) {
+        if (scale <= 0f || scale > 1f) {
+            throw new IllegalArgumentException("Scale must be in (0, 1].");
+        }
+        this.scale = scale;
+    }
+
+    private static final int REUSE_POOL_SIZE_DEFAULT = 2;
+    private int reusePoolSize = REUSE_POOL_SIZE_DEFAULT;
+    public void setReusePoolSize(int reusePoolSize) {
+        this.reusePoolSize = Math.max(0, reusePoolSize);
+        synchronized (reusePool) {
+            while (reusePool.size() > this.reusePoolSize) {
+                reusePool.remove(reusePool.size() - 1).recycle();
+            }
+        }
+    }
+
+    private Executor executor;
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ArrayList<Bitmap> reusePool = new ArrayList<Bitmap>();
+    private final LruCache<Object, Bitmap> cache;
+
+    public SnapshotCache(int maxBytes) {
+        this.cache = new LruCache<Object, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Object key, Bitmap bitmap) {
+                return bitmap.getRowBytes() * bitmap.getHeight();
+            }
+        };
+    }
+
+    public Bitmap get(Object key) {
+        return key != null ? cache.get(key) : null;
+    }
+
+    public void put(Object key, Bitmap bitmap) {
+        cache.put(key, bitmap);
+    }
+
+    public void remove(Object key) {
+        cache.remove(key);
+    }
+
+    public void evictAll() {
+        cache.evictAll();
+        synchronized (reusePool) {
+            for (Bitmap bitmap : reusePool) {
+                bitmap.recycle();
+            }
+            reusePool.clear();
+        }
+    }
+
+    public void trimToSize(int maxBytes) {
+        cache.trimToSize(Math.max(0, maxBytes));
+        synchronized (reusePool) {
+            reusePool.clear();
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getRetainedBytes() {
+        long bytes = cache.size();
+        synchronized (reusePool) {
+            for (Bitmap bitmap : reusePool) {
+                bytes += bitmap.getRowBytes() * bitmap.getHeight();
+            }
+        }
+        return bytes;
+    }
+
+    public int maxSize() {
+        return cache.maxSize();
+    }
+
+    public void capture(View view, final Object key) {
+        final int width = view.getWidth();
+        final int height = view.getHeight();
+        if (key == null || width <= 0 || height <= 0) {
+            return;
+        }
+
+        final Picture picture = new Picture();
+        Canvas recording = picture.beginRecording(width, height);
+        view.draw(recording);
+        picture.endRecording();
+
+        final float scale = this.scale;
+        getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                int scaledWidth = Math.max(1, (int) (width * scale));
+                int scaledHeight = Math.max(1, (int) (height * scale));
+                Bitmap bitmap = obtain(scaledWidth, scaledHeight);
+                bitmap.eraseColor(Color.TRANSPARENT);
+
+                Canvas canvas = new Canvas(bitmap);
+                canvas.scale(((float) scaledWidth) / width, ((float) scaledHeight) / height);
+                picture.draw(canvas);
+                deliver(key, bitmap);
+            }
+        });
+    }
+
+    private void deliver(final Object key, final Bitmap bitmap) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                put(key, bitmap);
+                if (snapshotListener != null) {
+                    snapshotListener.onSnapshot(key, bitmap);
+                }
+            }
+        });
+    }
+
+    private Bitmap obtain(int width, int height) {
+        synchronized (reusePool) {
+            for (int i = reusePool.size() - 1; i >= 0; i--) {
+                Bitmap bitmap = reusePool.get(i);
+                if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                    return reusePool.remove(i);
+                }
+            }
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    public void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() || cache.snapshot().containsValue(bitmap)) {
+            return;
+        }
+
+        synchronized (reusePool) {
+            if (reusePool.size() < reusePoolSize && !reusePool.contains(bitmap)) {
+                reusePool.add(bitmap);
+            }
+        }
+    }
+
+    private Executor getExecutor() {
+        return executor != null ? executor : BackgroundExecutor.get("SnapshotCache");
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.mthli.SwitcherPanel;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+class StatusDispatcher {
+    private static final int QUEUE_CAPACITY = 8;
+
+    private Executor executor;
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    private final ArrayList<Delivery> deliveries = new ArrayList<Delivery>();
+
+    private class Delivery implements Runnable {
+        private final SwitcherPanel.StatusListener listener;
+        private final boolean async;
+        private SwitcherPanel.Status[] pending = new SwitcherPanel.Status[QUEUE_CAPACITY];
+        private int head = 0;
+        private int size = 0;
+        private boolean scheduled = false;
+        private volatile boolean removed = false;
+
+        private Delivery(SwitcherPanel.StatusListener listener, boolean async) {
+            this.listener = listener;
+            this.async = async;
+        }
+
+        private void post(SwitcherPanel.Status status) {
+            boolean schedule;
+            synchronized (this) {
+                if (status == SwitcherPanel.Status.FLING && size > 0
+                        && pending[(head + size - 1) % pending.length] == SwitcherPanel.Status.FLING) {
+                    return;
+                }
+                if (size == pending.length) {
+                    grow();
+                }
+                pending[(head + size) % pending.length] = status;
+                size++;
+                schedule = !scheduled;
+                scheduled = true;
+            }
+            if (schedule) {
+                getExecutor().execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                SwitcherPanel.Status status;
+                synchronized (this) {
+                    if (size == 0) {
+                        scheduled = false;
+                        return;
+                    }
+                    status = pending[head];
+                    pending[head] = null;
+                    head = (head + 1) % pending.length;
+                    size--;
+                }
+                if (!removed) {
+                    deliver(listener, status);
+                }
+            }
+        }
+
+        private void grow() {
+            SwitcherPanel.Status[] newPending = new SwitcherPanel.Status[pending.length * 2];
+            for (int i = 0; i < size; i++) {
+                newPending[i] = pending[(head + i) % pending.length];
+            }
+            pending = newPending;
+            head = 0;
+        }
+    }
+
+    void add(SwitcherPanel.StatusListener listener, boolean async) {
+        if (listener == null || indexOf(listener) >= 0) {
+            return;
+        }
+        deliveries.add(new Delivery(listener, async));
+    }
+
+    void remove(SwitcherPanel.StatusListener listener) {
+        int index = indexOf(listener);
+        if (index >= 0) {
+            deliveries.remove(index).removed = true;
+        }
+    }
+
+    void dispatch(SwitcherPanel.Status status) {
+        for (int i = 0; i < deliveries.size(); i++) {
+            Delivery delivery = deliveries.get(i);
+            if (delivery.async) {
+                delivery.post(status);
+            } else {
+                deliver(delivery.listener, status);
+            }
+        }
+    }
+
+    private int indexOf(SwitcherPanel.StatusListener listener) {
+        for (int i = 0; i < deliveries.size(); i++) {
+            if (deliveries.get(i).listener == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void deliver(SwitcherPanel.StatusListener listener, SwitcherPanel.Status status) {
+        switch (status) {
+            case EXPANDED:
+                listener.onExpanded();
+                break;
+            case COLLAPSED:
+                listener.onCollapsed();
+                break;
+            case FLING:
+                listener.onFling();
+                break;
+        }
+    }
+
+    private Executor getExecutor() {
+        return executor != null ? executor : BackgroundExecutor.get("StatusDispatcher");
+    }
+}
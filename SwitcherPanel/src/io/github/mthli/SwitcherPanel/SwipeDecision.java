@@ -0,0 +1,26 @@
+package io.github.mthli.SwitcherPanel;
+
+public class SwipeDecision {
+    public static final int NONE = 0;
+    public static final int RESTORE = 1;
+    public static final int DISMISS_UP = 2;
+    public static final int DISMISS_DOWN = 3;
+
+    public static int decide(boolean swiping, float deltaY, float velocityY, int viewHeight, int minFlingVelocity, int maxFlingVelocity) {
+        if (!swiping) {
+            return NONE;
+        }
+
+        float absVelocityY = Math.abs(velocityY);
+        if (Math.abs(deltaY) > viewHeight / 2) {
+            return deltaY > 0 ? DISMISS_DOWN : DISMISS_UP;
+        } else if (minFlingVelocity <= absVelocityY && absVelocityY <= maxFlingVelocity && (velocityY < 0) == (deltaY < 0)) {
+            return velocityY > 0 ? DISMISS_DOWN : DISMISS_UP;
+        }
+        return RESTORE;
+    }
+
+    public static float computeAlpha(float deltaY, int viewHeight) {
+        return Math.max(0f, Math.min(1f, 1f - 2f * Math.abs(deltaY) / viewHeight));
+    }
+}
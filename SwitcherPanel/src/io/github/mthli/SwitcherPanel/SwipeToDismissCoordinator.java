@@ -0,0 +1,69 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+public class SwipeToDismissCoordinator implements SwitcherStrip.OnItemTouchListener {
+    private final SwitcherStrip strip;
+    private final SwipeToDismissListener listener;
+    private boolean tracking = false;
+
+    public SwipeToDismissCoordinator(SwitcherStrip strip, SwipeToDismissListener.DismissCallback callback) {
+        this.strip = strip;
+        this.listener = new SwipeToDismissListener(strip.getContext(), callback);
+    }
+
+    public SwipeToDismissListener getListener() {
+        return listener;
+    }
+
+    public void attach() {
+        strip.setOnItemTouchListener(this);
+    }
+
+    public void detach() {
+        strip.setOnItemTouchListener(null);
+        tracking = false;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(SwitcherStrip strip, MotionEvent motionEvent) {
+        if (motionEvent.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            tracking = false;
+            if (listener.isDismissing() || listener.isSwiping()) {
+                return false;
+            }
+
+            View child = strip.findChildViewUnder(motionEvent.getX(), motionEvent.getY());
+            if (child == null) {
+                return false;
+            }
+            listener.setTarget(child, strip.getChildViewHolder(child));
+            tracking = true;
+        }
+
+        if (!tracking) {
+            return false;
+        }
+
+        listener.processTouch(motionEvent);
+        int action = motionEvent.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            tracking = false;
+        }
+        return listener.isSwiping();
+    }
+
+    @Override
+    public void onTouchEvent(SwitcherStrip strip, MotionEvent motionEvent) {
+        if (!tracking) {
+            return;
+        }
+
+        listener.processTouch(motionEvent);
+        int action = motionEvent.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            tracking = false;
+        }
+    }
+}
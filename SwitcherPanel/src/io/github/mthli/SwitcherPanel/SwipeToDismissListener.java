@@ -1,8 +1,6 @@
 package io.github.mthli.SwitcherPanel;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
+import android.content.Context;
 import android.view.*;
 
 public class SwipeToDismissListener implements View.OnTouchListener {
@@ -11,6 +9,50 @@ public class SwipeToDismissListener implements View.OnTouchListener {
         void onDismiss(View view, Object token);
     }
 
+    public enum DismissMode {
+        RESIZE,
+        TRANSLATE
+    }
+    private static final DismissMode DISMISS_MODE_DEFAULT = DismissMode.TRANSLATE;
+    private DismissMode dismissMode = DISMISS_MODE_DEFAULT;
+    public DismissMode getDismissMode() {
+        return dismissMode;
+    }
+    public void setDismissMode(DismissMode dismissMode) {
+        this.dismissMode = dismissMode;
+    }
+
+    private boolean hardwareLayerEnabled = true;
+    public boolean isHardwareLayerEnabled() {
+        return hardwareLayerEnabled;
+    }
+    public void setHardwareLayerEnabled(boolean hardwareLayerEnabled) {
+        this.hardwareLayerEnabled = hardwareLayerEnabled;
+    }
+
+    private FrameStats frameStats;
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+    public void setFrameStats(FrameStats frameStats) {
+        endFramePhase();
+        FrameStats oldFrameStats = this.frameStats;
+        this.frameStats = frameStats;
+        attachQualityController(oldFrameStats);
+    }
+    private FrameStats phaseFrameStats;
+    private FrameStats.Phase framePhase;
+
+    private QualityController qualityController;
+    public QualityController getQualityController() {
+        return qualityController;
+    }
+    public void setQualityController(QualityController qualityController) {
+        endFramePhase();
+        this.qualityController = qualityController;
+        attachQualityController(null);
+    }
+
     private View view;
     private Object token;
     private DismissCallback callback;
@@ -26,29 +68,119 @@ public class SwipeToDismissListener implements View.OnTouchListener {
     private boolean swiping;
     private int swipingSlop;
     private VelocityTracker velocityTracker;
+    private boolean layerActive = false;
+    private int savedLayerType = View.LAYER_TYPE_NONE;
+
+    private ViewGroup collapseParent;
+    private int originalWidth;
+    private int originalLeft;
+
+    private float fromTranslationY;
+    private float toTranslationY;
+    private float fromAlpha;
+    private float toAlpha;
+    private boolean dismissOnEnd = false;
+
+    private final AnimationEngine.AnimationCallback swipeAnimation = new AnimationEngine.AnimationCallback() {
+        @Override
+        public boolean onAnimationFrame(float fraction, long frameTimeNanos) {
+            view.setTranslationY(fromTranslationY + (toTranslationY - fromTranslationY) * fraction);
+            view.setAlpha(fromAlpha + (toAlpha - fromAlpha) * fraction);
+            return true;
+        }
+
+        @Override
+        public void onAnimationEnd(boolean canceled) {
+            if (canceled) {
+                if (dismissOnEnd) {
+                    dismissing = false;
+                }
+                disableLayer();
+                endFramePhase();
+                return;
+            }
+
+            view.setTranslationY(toTranslationY);
+            view.setAlpha(toAlpha);
+            if (dismissOnEnd) {
+                performDismiss();
+            } else {
+                disableLayer();
+                endFramePhase();
+            }
+        }
+    };
+
+    private final AnimationEngine.AnimationCallback collapseAnimation = new AnimationEngine.AnimationCallback() {
+        @Override
+        public boolean onAnimationFrame(float fraction, long frameTimeNanos) {
+            applyCollapseFraction(fraction);
+            return true;
+        }
+
+        @Override
+        public void onAnimationEnd(boolean canceled) {
+            finishDismiss();
+        }
+    };
+
+    private boolean dismissing = false;
+    public boolean isDismissing() {
+        return dismissing;
+    }
 
     public SwipeToDismissListener(View view, Object token, DismissCallback callback) {
+        this(view.getContext(), callback);
         this.view = view;
         this.token = token;
+    }
+
+    SwipeToDismissListener(Context context, DismissCallback callback) {
         this.callback = callback;
 
-        ViewConfiguration configuration = ViewConfiguration.get(view.getContext());
+        ViewConfiguration configuration = ViewConfiguration.get(context);
         this.slop = configuration.getScaledTouchSlop();
         this.minFlingVelocity = configuration.getScaledMinimumFlingVelocity();
         this.maxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
-        this.animationTime = view.getContext().getResources().getInteger(android.R.integer.config_shortAnimTime);
+        this.animationTime = context.getResources().getInteger(android.R.integer.config_shortAnimTime);
+    }
+
+    void setTarget(View view, Object token) {
+        if (dismissing || swiping) {
+            throw new IllegalStateException("Cannot change the target while a swipe is in progress.");
+        }
+        AnimationEngine.getInstance().cancel(swipeAnimation);
+
+        this.view = view;
+        this.token = token;
+        this.viewHeight = 1;
+    }
+
+    boolean isSwiping() {
+        return swiping;
     }
 
     @Override
     public boolean onTouch(View view, MotionEvent motionEvent) {
         motionEvent.offsetLocation(0, translationY);
+        return processTouch(motionEvent);
+    }
+
+    boolean processTouch(MotionEvent motionEvent) {
         if (viewHeight < 2) {
             viewHeight = this.view.getHeight();
         }
 
         switch (motionEvent.getActionMasked()) {
             case MotionEvent.ACTION_DOWN: {
+                if (!dismissing) {
+                    AnimationEngine.getInstance().cancel(swipeAnimation);
+                }
                 downY = motionEvent.getRawY();
+                if (velocityTracker != null) {
+                    velocityTracker.recycle();
+                    velocityTracker = null;
+                }
                 if (callback.canDismiss(token)) {
                     velocityTracker = VelocityTracker.obtain();
                     velocityTracker.addMovement(motionEvent);
@@ -62,36 +194,14 @@ public class SwipeToDismissListener implements View.OnTouchListener {
                 velocityTracker.computeCurrentVelocity(1000);
 
                 float deltaY = motionEvent.getRawY() - downY;
-                float velocityY = velocityTracker.getYVelocity();
-                float absVelocityY = Math.abs(velocityTracker.getYVelocity());
-                boolean dismiss = false;
-                boolean dismissDown = false;
-
-                if ((Math.abs(deltaY) > viewHeight / 2) && swiping) {
-                    dismiss = true;
-                    dismissDown = (deltaY > 0);
-                } else if (minFlingVelocity <= absVelocityY && absVelocityY <= maxFlingVelocity && swiping) {
-                    dismiss = ((velocityY < 0) == (deltaY < 0));
-                    dismissDown = velocityTracker.getYVelocity() > 0;
-                }
+                int decision = SwipeDecision.decide(swiping, deltaY, velocityTracker.getYVelocity(), viewHeight, minFlingVelocity, maxFlingVelocity);
 
-                if (dismiss) {
-                    this.view.animate()
-                            .translationY(dismissDown ? viewHeight : -viewHeight)
-                            .alpha(0)
-                            .setDuration(animationTime)
-                            .setListener(new AnimatorListenerAdapter() {
-                                @Override
-                                public void onAnimationEnd(Animator animation) {
-                                    performDismiss();
-                                }
-                            });
-                } else if (swiping) {
-                    this.view.animate()
-                            .translationY(0f)
-                            .alpha(1f)
-                            .setDuration(animationTime)
-                            .setListener(null);
+                if (decision == SwipeDecision.DISMISS_UP || decision == SwipeDecision.DISMISS_DOWN) {
+                    dismissing = true;
+                    animateSwipe(decision == SwipeDecision.DISMISS_DOWN ? viewHeight : -viewHeight,
+                            isFadeEnabled() ? 0f : this.view.getAlpha(), true);
+                } else if (decision == SwipeDecision.RESTORE) {
+                    animateSwipe(0f, 1f, false);
                 }
                 downY = 0;
                 translationY = 0;
@@ -104,11 +214,7 @@ public class SwipeToDismissListener implements View.OnTouchListener {
                     break;
                 }
 
-                this.view.animate()
-                        .translationY(0f)
-                        .alpha(1f)
-                        .setDuration(animationTime)
-                        .setListener(null);
+                animateSwipe(0f, 1f, false);
                 downY = 0;
                 translationY = 0;
                 swiping = false;
@@ -123,20 +229,28 @@ public class SwipeToDismissListener implements View.OnTouchListener {
 
                 float deltaY = motionEvent.getRawY() - downY;
                 if (Math.abs(deltaY) > slop) {
-                    swiping = true;
                     swipingSlop = (deltaY > 0 ? slop : -slop);
-                    this.view.getParent().requestDisallowInterceptTouchEvent(true);
+                    if (!swiping) {
+                        swiping = true;
+                        enableLayer();
+                        beginFramePhase(FrameStats.Phase.DISMISS_FADE);
+                        this.view.getParent().requestDisallowInterceptTouchEvent(true);
 
-                    MotionEvent cancelEvent = MotionEvent.obtainNoHistory(motionEvent);
-                    cancelEvent.setAction(MotionEvent.ACTION_CANCEL | (motionEvent.getActionIndex() << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
-                    this.view.onTouchEvent(cancelEvent);
-                    cancelEvent.recycle();
+                        MotionEvent cancelEvent = MotionEvent.obtainNoHistory(motionEvent);
+                        cancelEvent.setAction(MotionEvent.ACTION_CANCEL | (motionEvent.getActionIndex() << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
+                        this.view.onTouchEvent(cancelEvent);
+                        cancelEvent.recycle();
+                    }
                 }
 
                 if (swiping) {
                     translationY = deltaY;
                     this.view.setTranslationY(deltaY - swipingSlop);
-                    this.view.setAlpha(Math.max(0f, Math.min(1f, 1f - 2f * Math.abs(deltaY) / viewHeight)));
+                    if (isFadeEnabled()) {
+                        this.view.setAlpha(SwipeDecision.computeAlpha(deltaY, viewHeight));
+                    } else if (this.view.getAlpha() != 1f) {
+                        this.view.setAlpha(1f);
+                    }
                     return true;
                 }
                 break;
@@ -146,28 +260,125 @@ public class SwipeToDismissListener implements View.OnTouchListener {
         return false;
     }
 
+    private void beginFramePhase(FrameStats.Phase phase) {
+        if (framePhase == phase) {
+            return;
+        }
+
+        endFramePhase();
+        FrameStats stats = frameStats != null ? frameStats : (qualityController != null ? qualityController.getFrameStats() : null);
+        if (stats != null) {
+            framePhase = phase;
+            phaseFrameStats = stats;
+            stats.begin(phase);
+        }
+    }
+
+    private void endFramePhase() {
+        if (phaseFrameStats != null && framePhase != null) {
+            phaseFrameStats.end(framePhase);
+        }
+        framePhase = null;
+    }
+
+    private void attachQualityController(FrameStats oldFrameStats) {
+        if (qualityController == null) {
+            return;
+        }
+
+        if (frameStats != null) {
+            qualityController.setFrameStats(frameStats);
+        } else if (oldFrameStats != null && qualityController.getFrameStats() == oldFrameStats) {
+            qualityController.setFrameStats(null);
+        }
+    }
+
+    private boolean isFadeEnabled() {
+        return qualityController == null || qualityController.isFadeEnabled();
+    }
+
+    private void enableLayer() {
+        if (!hardwareLayerEnabled || layerActive) {
+            return;
+        }
+
+        layerActive = true;
+        savedLayerType = view.getLayerType();
+        if (savedLayerType != View.LAYER_TYPE_HARDWARE) {
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            if (view.isHardwareAccelerated() && view.getWindowToken() != null) {
+                view.buildLayer();
+            }
+        }
+    }
+
+    private void disableLayer() {
+        if (!layerActive) {
+            return;
+        }
+
+        layerActive = false;
+        if (view.getLayerType() != savedLayerType) {
+            view.setLayerType(savedLayerType, null);
+        }
+    }
+
     private void performDismiss() {
-        final ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
-        final int originalWidth = view.getWidth();
-
-        ValueAnimator animator = ValueAnimator.ofInt(originalWidth, 1).setDuration(animationTime);
-        animator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                callback.onDismiss(view, token);
-                view.setAlpha(1f);
-                view.setTranslationY(0f);
-                layoutParams.width = originalWidth;
-                view.setLayoutParams(layoutParams);
+        disableLayer();
+        beginFramePhase(FrameStats.Phase.DISMISS_COLLAPSE);
+        originalWidth = view.getWidth();
+        originalLeft = view.getLeft();
+        if (dismissMode == DismissMode.TRANSLATE && view.getParent() instanceof ViewGroup) {
+            collapseParent = (ViewGroup) view.getParent();
+        } else {
+            collapseParent = null;
+        }
+
+        AnimationEngine.getInstance(view.getContext()).start(collapseAnimation, animationTime);
+    }
+
+    private void animateSwipe(float translationY, float alpha, boolean dismiss) {
+        AnimationEngine.getInstance().cancel(swipeAnimation);
+        fromTranslationY = view.getTranslationY();
+        fromAlpha = view.getAlpha();
+        toTranslationY = translationY;
+        toAlpha = alpha;
+        dismissOnEnd = dismiss;
+        AnimationEngine.getInstance(view.getContext()).start(swipeAnimation, animationTime);
+    }
+
+    private void applyCollapseFraction(float fraction) {
+        if (collapseParent != null) {
+            float translationX = -originalWidth * fraction;
+            for (int i = 0; i < collapseParent.getChildCount(); i++) {
+                View child = collapseParent.getChildAt(i);
+                if (child != view && child.getLeft() > originalLeft) {
+                    child.setTranslationX(translationX);
+                }
             }
-        });
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                layoutParams.width = (Integer) animation.getAnimatedValue();
-                view.setLayoutParams(layoutParams);
+        } else {
+            ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
+            layoutParams.width = Math.max(1, (int) (originalWidth + (1 - originalWidth) * fraction));
+            view.setLayoutParams(layoutParams);
+        }
+    }
+
+    private void finishDismiss() {
+        dismissing = false;
+        endFramePhase();
+        callback.onDismiss(view, token);
+        view.setAlpha(1f);
+        view.setTranslationY(0f);
+
+        if (collapseParent != null) {
+            for (int i = 0; i < collapseParent.getChildCount(); i++) {
+                collapseParent.getChildAt(i).setTranslationX(0f);
             }
-        });
-        animator.start();
+            collapseParent = null;
+        } else {
+            ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
+            layoutParams.width = originalWidth;
+            view.setLayoutParams(layoutParams);
+        }
     }
 }
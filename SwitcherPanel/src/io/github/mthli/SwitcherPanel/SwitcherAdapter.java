@@ -0,0 +1,128 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public abstract class SwitcherAdapter<VH extends SwitcherAdapter.ViewHolder> {
+    public static final int NO_POSITION = -1;
+
+    public static abstract class ViewHolder {
+        public final View itemView;
+        int position = NO_POSITION;
+        int itemViewType = 0;
+
+        public ViewHolder(View itemView) {
+            if (itemView == null) {
+                throw new IllegalArgumentException("itemView may not be null.");
+            }
+            this.itemView = itemView;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public int getItemViewType() {
+            return itemViewType;
+        }
+    }
+
+    public interface AdapterObserver {
+        void onChanged();
+        void onItemRangeInserted(int positionStart, int itemCount);
+        void onItemRangeRemoved(int positionStart, int itemCount);
+        void onItemRangeChanged(int positionStart, int itemCount);
+    }
+    private final List<AdapterObserver> observers = new ArrayList<AdapterObserver>();
+
+    public abstract int getItemCount();
+
+    public int getItemViewType(int position) {
+        return 0;
+    }
+
+    public abstract VH onCreateViewHolder(ViewGroup parent, int viewType);
+
+    public abstract void onBindViewHolder(VH holder, int position);
+
+    public void onViewRecycled(VH holder) {}
+
+    final VH createViewHolder(ViewGroup parent, int viewType) {
+        VH holder = onCreateViewHolder(parent, viewType);
+        holder.itemViewType = viewType;
+        return holder;
+    }
+
+    @SuppressWarnings("unchecked")
+    final void bindViewHolder(ViewHolder holder, int position) {
+        holder.position = position;
+        onBindViewHolder((VH) holder, position);
+    }
+
+    @SuppressWarnings("unchecked")
+    final void recycleViewHolder(ViewHolder holder) {
+        onViewRecycled((VH) holder);
+        holder.position = NO_POSITION;
+    }
+
+    public void registerAdapterObserver(AdapterObserver observer) {
+        if (!observers.contains(observer)) {
+            observers.add(observer);
+        }
+    }
+
+    public void unregisterAdapterObserver(AdapterObserver observer) {
+        observers.remove(observer);
+    }
+
+    public final void notifyDataSetChanged() {
+        for (int i = observers.size() - 1; i >= 0; i--) {
+            observers.get(i).onChanged();
+        }
+    }
+
+    public final void notifyItemInserted(int position) {
+        notifyItemRangeInserted(position, 1);
+    }
+
+    public final void notifyItemRangeInserted(int positionStart, int itemCount) {
+        for (int i = observers.size() - 1; i >= 0; i--) {
+            observers.get(i).onItemRangeInserted(positionStart, itemCount);
+        }
+    }
+
+    public final void notifyItemRemoved(int position) {
+        notifyItemRangeRemoved(position, 1);
+    }
+
+    public final void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        for (int i = observers.size() - 1; i >= 0; i--) {
+            observers.get(i).onItemRangeRemoved(positionStart, itemCount);
+        }
+    }
+
+    public final void notifyItemsRemoved(int[] sortedPositions) {
+        int end = sortedPositions.length - 1;
+        while (end >= 0) {
+            int start = end;
+            while (start > 0 && sortedPositions[start - 1] == sortedPositions[start] - 1) {
+                start--;
+            }
+            notifyItemRangeRemoved(sortedPositions[start], end - start + 1);
+            end = start - 1;
+        }
+    }
+
+    public final void notifyItemChanged(int position) {
+        notifyItemRangeChanged(position, 1);
+    }
+
+    public final void notifyItemRangeChanged(int positionStart, int itemCount) {
+        for (int i = observers.size() - 1; i >= 0; i--) {
+            observers.get(i).onItemRangeChanged(positionStart, itemCount);
+        }
+    }
+}
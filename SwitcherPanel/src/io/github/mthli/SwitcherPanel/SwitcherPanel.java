@@ -1,22 +1,38 @@
 package io.github.mthli.SwitcherPanel;
 
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.NonNull;
+import android.support.v4.view.NestedScrollingParent;
+import android.support.v4.view.NestedScrollingParentHelper;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.widget.ViewDragHelper;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewOutlineProvider;
+import android.view.ViewStub;
 
-public class SwitcherPanel extends ViewGroup {
+import java.util.concurrent.Executor;
+
+public class SwitcherPanel extends ViewGroup implements NestedScrollingParent {
     private View switcherView;
     private View contentView;
     private Drawable shadowDrawable;
+    private final int[] location = new int[2];
+    private float density;
 
     private int coverHeight = 0;
     private int slideRange = 0;
@@ -29,7 +45,28 @@ public class SwitcherPanel extends ViewGroup {
     }
     public void setShadowHeight(int shadowHeight) {
         this.shadowHeight = shadowHeight;
+        releaseShadowBitmap();
+        applyShadowMode();
+    }
+
+    public enum ShadowMode {
+        DRAWABLE,
+        CACHED,
+        ELEVATION
     }
+    private static final ShadowMode SHADOW_MODE_DEFAULT = ShadowMode.DRAWABLE;
+    private ShadowMode shadowMode = SHADOW_MODE_DEFAULT;
+    public ShadowMode getShadowMode() {
+        return shadowMode;
+    }
+    public void setShadowMode(ShadowMode shadowMode) {
+        this.shadowMode = shadowMode;
+        applyShadowMode();
+        invalidate();
+    }
+    private Bitmap shadowBitmap;
+    private View shadowTarget;
+    private boolean shadowTrimmed = false;
 
     private static final int PARALLAX_OFFSET_DEFAULT = 64;
     private int parallaxOffset = PARALLAX_OFFSET_DEFAULT;
@@ -48,10 +85,35 @@ public class SwitcherPanel extends ViewGroup {
     public void setFlingVelocity(int flingVelocity) {
         this.flingVelocity = flingVelocity;
         if (dragHelper != null) {
-            dragHelper.setMinVelocity(flingVelocity * ViewUnit.getDensity(getContext()));
+            dragHelper.setMinVelocity(flingVelocity * density);
         }
     }
 
+    private boolean hardwareLayersEnabled = true;
+    public boolean isHardwareLayersEnabled() {
+        return hardwareLayersEnabled;
+    }
+    public void setHardwareLayersEnabled(boolean hardwareLayersEnabled) {
+        this.hardwareLayersEnabled = hardwareLayersEnabled;
+        if (!hardwareLayersEnabled) {
+            disableChildLayers();
+        }
+    }
+    private boolean layersActive = false;
+
+    public enum OverscrollMode {
+        RESIZE,
+        SCALE
+    }
+    private static final OverscrollMode OVERSCROLL_MODE_DEFAULT = OverscrollMode.SCALE;
+    private OverscrollMode overscrollMode = OVERSCROLL_MODE_DEFAULT;
+    public OverscrollMode getOverscrollMode() {
+        return overscrollMode;
+    }
+    public void setOverscrollMode(OverscrollMode overscrollMode) {
+        this.overscrollMode = overscrollMode;
+    }
+
     public enum Status {
         EXPANDED,
         COLLAPSED,
@@ -70,9 +132,177 @@ public class SwitcherPanel extends ViewGroup {
     }
     private StatusListener statusListener;
     public void setStatusListener(StatusListener statusListener) {
+        statusDispatcher.remove(this.statusListener);
         this.statusListener = statusListener;
+        statusDispatcher.add(statusListener, false);
+    }
+    public void addStatusListener(StatusListener statusListener) {
+        statusDispatcher.add(statusListener, false);
+    }
+    public void addStatusListener(StatusListener statusListener, boolean async) {
+        statusDispatcher.add(statusListener, async);
+    }
+    public void removeStatusListener(StatusListener statusListener) {
+        statusDispatcher.remove(statusListener);
+    }
+    public void setStatusExecutor(Executor statusExecutor) {
+        statusDispatcher.setExecutor(statusExecutor);
+    }
+    private final StatusDispatcher statusDispatcher = new StatusDispatcher();
+
+    private SnapshotCache snapshotCache;
+    public SnapshotCache getSnapshotCache() {
+        return snapshotCache;
+    }
+    public void setSnapshotCache(SnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    private Object snapshotKey;
+    public Object getSnapshotKey() {
+        return snapshotKey;
+    }
+    public void setSnapshotKey(Object snapshotKey) {
+        this.snapshotKey = snapshotKey;
+    }
+
+    private FrameStats frameStats;
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+    public void setFrameStats(FrameStats frameStats) {
+        endFramePhase();
+        endOverscrollPhase();
+        FrameStats oldFrameStats = this.frameStats;
+        this.frameStats = frameStats;
+        attachQualityController(oldFrameStats);
+    }
+    private FrameStats phaseFrameStats;
+    private FrameStats.Phase framePhase;
+    private boolean overscrollPhase = false;
+
+    private QualityController qualityController;
+    public QualityController getQualityController() {
+        return qualityController;
+    }
+    public void setQualityController(QualityController qualityController) {
+        endFramePhase();
+        endOverscrollPhase();
+        this.qualityController = qualityController;
+        attachQualityController(null);
+        applyQuality();
+    }
+    private QualityController.Quality appliedQuality = QualityController.Quality.FULL;
+
+    private ContentPagePool pagePool;
+    public ContentPagePool getPagePool() {
+        return pagePool;
+    }
+    public void setPagePool(ContentPagePool pagePool) {
+        this.pagePool = pagePool;
+    }
+
+    private Object currentPageKey;
+    public Object getCurrentPageKey() {
+        return currentPageKey;
+    }
+    public void setCurrentPageKey(Object currentPageKey) {
+        this.currentPageKey = currentPageKey;
+        this.snapshotKey = currentPageKey;
+    }
+
+    public interface OnSwitcherInflateListener {
+        void onSwitcherInflated(View switcherView);
+    }
+    private OnSwitcherInflateListener onSwitcherInflateListener;
+    public void setOnSwitcherInflateListener(OnSwitcherInflateListener onSwitcherInflateListener) {
+        this.onSwitcherInflateListener = onSwitcherInflateListener;
+    }
+
+    private boolean switcherPrewarmEnabled = false;
+    public boolean isSwitcherPrewarmEnabled() {
+        return switcherPrewarmEnabled;
+    }
+    public void setSwitcherPrewarmEnabled(boolean switcherPrewarmEnabled) {
+        this.switcherPrewarmEnabled = switcherPrewarmEnabled;
+        if (switcherPrewarmEnabled && getWindowToken() != null) {
+            schedulePrewarm();
+        } else if (!switcherPrewarmEnabled) {
+            cancelPrewarm();
+        }
+    }
+    private boolean prewarmScheduled = false;
+    private final MessageQueue.IdleHandler prewarmIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            prewarmScheduled = false;
+            inflateSwitcher();
+            return false;
+        }
+    };
+
+    private final ComponentCallbacks2 trimMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            SwitcherPanel.this.onTrimMemory(level);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {}
+
+        @Override
+        public void onLowMemory() {
+            SwitcherPanel.this.onTrimMemory(TRIM_MEMORY_COMPLETE);
+        }
+    };
+
+    public interface SlideListener {
+        void onSlide(float offset, float velocity, Status status);
+    }
+    private SlideListener slideListener;
+    public void setSlideListener(SlideListener slideListener) {
+        this.slideListener = slideListener;
+        if (slideListener == null) {
+            slideFrameCallback.remove();
+        }
     }
 
+    private static final long SLIDE_VELOCITY_TIMEOUT = 100000000L;
+    private float lastSlideOffset = 1f;
+    private boolean restoreDispatchPending = false;
+    private long lastSlideFrameTimeNanos = 0L;
+    private final FrameCallbackCompat slideFrameCallback = new FrameCallbackCompat() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            dispatchOnSlide(frameTimeNanos);
+        }
+    };
+
+    private final SettleSpring settleSpring = new SettleSpring();
+    public SettleSpring getSettleSpring() {
+        return settleSpring;
+    }
+    private long lastSettleFrameTimeNanos = 0L;
+    private final AnimationEngine.AnimationCallback settleAnimation = new AnimationEngine.AnimationCallback() {
+        @Override
+        public boolean onAnimationFrame(float fraction, long frameTimeNanos) {
+            return onSettleFrame(frameTimeNanos);
+        }
+
+        @Override
+        public void onAnimationEnd(boolean canceled) {
+            if (!canceled && contentView != null) {
+                onMotionStopped();
+            }
+        }
+    };
+
+    private final NestedScrollingParentHelper nestedScrollingParentHelper = new NestedScrollingParentHelper(this);
+    private boolean nestedDragging = false;
+    private boolean nestedSettleInterrupted = false;
+    private int nestedSettleTarget;
+    private float nestedSettleVelocity;
+
     private ViewDragHelper dragHelper;
     private class DragHelperCallback extends ViewDragHelper.Callback {
         @Override
@@ -82,14 +312,14 @@ public class SwitcherPanel extends ViewGroup {
 
         @Override
         public void onViewCaptured(View capturedChild, int activePointerId) {
+            stopSettle();
+            inflateSwitcher();
             setAllChildrenVisible();
         }
 
         @Override
         public int clampViewPositionVertical(View child, int top, int dy) {
-            int hideTop = computeTopPosition(0f);
-            int showTop = computeTopPosition(1f);
-            return Math.min(Math.max(top, showTop), hideTop);
+            return PanelGeometry.clampTop(top, computeTopPosition(1f), computeTopPosition(0f));
         }
 
         @Override
@@ -100,46 +330,38 @@ public class SwitcherPanel extends ViewGroup {
         @Override
         public void onViewPositionChanged(View changedView, int left, int top, int dx, int dy) {
             fling(top);
-            invalidate();
+            invalidateShadow(top - dy, top);
         }
 
         @Override
         public void onViewDragStateChanged(int state) {
-            if (dragHelper.getViewDragState() == ViewDragHelper.STATE_IDLE) {
-                slideOffset = computeSlideOffset(contentView.getTop());
-                applyParallaxForCurrentSlideOffset();
-
-                if (slideOffset == 1f && status != Status.EXPANDED) {
-                    status = Status.EXPANDED;
-                    dispatchOnExpanded();
-                } else if (slideOffset == 0f && status != Status.COLLAPSED) {
-                    status = Status.COLLAPSED;
-                    dispatchOnCollapsed();
-                }
+            if (state == ViewDragHelper.STATE_DRAGGING) {
+                onMotionStarted(FrameStats.Phase.DRAG);
+            } else if (state == ViewDragHelper.STATE_SETTLING) {
+                onMotionStarted(FrameStats.Phase.SETTLE);
+            } else if (!settleSpring.isRunning()) {
+                onMotionStopped();
             }
         }
 
         @Override
         public void onViewReleased(View view, float x, float y) {
-            int target;
-            float direction = -y;
-            if (direction > 0) {
-                target = computeTopPosition(1f);
-            } else if (direction < 0) {
-                target = computeTopPosition(0f);
-            } else {
-                target = computeTopPosition(0f);
-            }
-
-            dragHelper.settleCapturedViewAt(view.getLeft(), target);
-            invalidate();
+            int target = SettleSpring.chooseTarget(view.getTop(), y, computeTopPosition(1f), computeTopPosition(0f));
+            startSettle(target, y);
         }
     }
 
     public static class LayoutParams extends ViewGroup.MarginLayoutParams {
-        private static final int[] ATTRS = new int[] {
-                android.R.attr.layout_weight
-        };
+        private boolean hardwareLayer = true;
+        public boolean isHardwareLayer() {
+            return hardwareLayer;
+        }
+        public void setHardwareLayer(boolean hardwareLayer) {
+            this.hardwareLayer = hardwareLayer;
+        }
+        private int savedLayerType = View.LAYER_TYPE_NONE;
+        private int lastWidthSpec = -1;
+        private int lastHeightSpec = -1;
 
         public LayoutParams() {
             super(MATCH_PARENT, MATCH_PARENT);
@@ -159,15 +381,51 @@ public class SwitcherPanel extends ViewGroup {
 
         public LayoutParams(LayoutParams source) {
             super(source);
+            this.hardwareLayer = source.hardwareLayer;
         }
 
         public LayoutParams(Context c, AttributeSet attrs) {
             super(c, attrs);
-            TypedArray typedArray = c.obtainStyledAttributes(attrs, ATTRS);
+            TypedArray typedArray = c.obtainStyledAttributes(attrs, R.styleable.SwitcherPanel_Layout);
+            this.hardwareLayer = typedArray.getBoolean(R.styleable.SwitcherPanel_Layout_layout_hardwareLayer, true);
             typedArray.recycle();
         }
     }
 
+    static class SavedState extends BaseSavedState {
+        private Status status;
+        private float slideOffset;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            this.status = Status.values()[in.readInt()];
+            this.slideOffset = in.readFloat();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(status.ordinal());
+            out.writeFloat(slideOffset);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
     public SwitcherPanel(Context context) {
         this(context, null);
     }
@@ -179,6 +437,7 @@ public class SwitcherPanel extends ViewGroup {
     @SuppressWarnings("getResource().getDrawable(int) is deprecated.")
     public SwitcherPanel(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
+        density = ViewUnit.getDensity(context);
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
             shadowDrawable = getResources().getDrawable(R.drawable.shadow, null);
@@ -192,6 +451,75 @@ public class SwitcherPanel extends ViewGroup {
         coverHeight = (int) ViewUnit.dp2px(context, 128); // TODO
     }
 
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        density = ViewUnit.getDensity(getContext());
+        releaseShadowBitmap();
+        applyShadowMode();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(trimMemoryCallbacks);
+        if (switcherPrewarmEnabled) {
+            schedulePrewarm();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getContext().getApplicationContext().unregisterComponentCallbacks(trimMemoryCallbacks);
+        cancelPrewarm();
+        slideFrameCallback.remove();
+        if (settleSpring.isRunning()) {
+            stopSettle();
+            onMotionStopped();
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        float offset = slideOffset;
+        if (settleSpring.isRunning()) {
+            offset = computeSlideOffset((int) settleSpring.getTarget());
+        } else if (status == Status.FLING) {
+            offset = slideOffset >= 0.5f ? 1f : 0f;
+        }
+
+        if (offset >= 1f) {
+            savedState.status = Status.EXPANDED;
+            savedState.slideOffset = 1f;
+        } else {
+            savedState.status = Status.COLLAPSED;
+            savedState.slideOffset = 0f;
+        }
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        stopSettle();
+        status = savedState.status;
+        slideOffset = savedState.slideOffset;
+        lastSlideOffset = slideOffset;
+        restoreDispatchPending = true;
+        if (status != Status.EXPANDED) {
+            inflateSwitcher();
+        }
+        requestLayout();
+    }
+
     @Override
     protected ViewGroup.LayoutParams generateDefaultLayoutParams() {
         return new LayoutParams();
@@ -224,6 +552,9 @@ public class SwitcherPanel extends ViewGroup {
 
         switcherView = getChildAt(0);
         contentView = getChildAt(1);
+        if (contentView != shadowTarget) {
+            applyShadowMode();
+        }
 
         int widthSize = MeasureSpec.getSize(widthMeasureSpec);
         int heightSize = MeasureSpec.getSize(heightMeasureSpec);
@@ -242,25 +573,15 @@ public class SwitcherPanel extends ViewGroup {
                 height = height - layoutParams.topMargin;
             }
 
-            int childWidthSpec;
-            if (layoutParams.width == ViewGroup.LayoutParams.WRAP_CONTENT) {
-                childWidthSpec = MeasureSpec.makeMeasureSpec(width, MeasureSpec.AT_MOST);
-            } else if (layoutParams.width == ViewGroup.LayoutParams.MATCH_PARENT) {
-                childWidthSpec = MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY);
-            } else {
-                childWidthSpec = MeasureSpec.makeMeasureSpec(layoutParams.width, MeasureSpec.EXACTLY);
-            }
-
-            int childHeightSpec;
-            if (layoutParams.height == ViewGroup.LayoutParams.WRAP_CONTENT) {
-                childHeightSpec = MeasureSpec.makeMeasureSpec(height, MeasureSpec.AT_MOST);
-            } else if (layoutParams.height == ViewGroup.LayoutParams.MATCH_PARENT) {
-                childHeightSpec = MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY);
-            } else {
-                childHeightSpec = MeasureSpec.makeMeasureSpec(layoutParams.height, MeasureSpec.EXACTLY);
+            int childWidthSpec = PanelGeometry.childMeasureSpec(width, layoutParams.width);
+            int childHeightSpec = PanelGeometry.childMeasureSpec(height, layoutParams.height);
+            if (child.isLayoutRequested()
+                    || childWidthSpec != layoutParams.lastWidthSpec
+                    || childHeightSpec != layoutParams.lastHeightSpec) {
+                child.measure(childWidthSpec, childHeightSpec);
+                layoutParams.lastWidthSpec = childWidthSpec;
+                layoutParams.lastHeightSpec = childHeightSpec;
             }
-
-            child.measure(childWidthSpec, childHeightSpec);
             if (child == contentView) {
                 slideRange = contentView.getMeasuredHeight() - coverHeight;
             }
@@ -282,45 +603,152 @@ public class SwitcherPanel extends ViewGroup {
             if (child == contentView) {
                 top = computeTopPosition(slideOffset);
             }
-            int height = child.getMeasuredHeight();
-            int bottom = top + height;
             int left = paddingLeft + layoutParams.leftMargin;
-            int right = left + child.getMeasuredWidth();
-            child.layout(left, top, right, bottom);
+            int width = child.getMeasuredWidth();
+            int height = child.getMeasuredHeight();
+
+            boolean sameSize = !child.isLayoutRequested()
+                    && child.getLeft() == left
+                    && child.getWidth() == width
+                    && child.getHeight() == height;
+            if (sameSize && child.getTop() == top) {
+                continue;
+            } else if (sameSize) {
+                child.offsetTopAndBottom(top - child.getTop());
+            } else {
+                child.layout(left, top, left + width, top + height);
+            }
         }
         applyParallaxForCurrentSlideOffset(); // TODO
+
+        if (restoreDispatchPending) {
+            restoreDispatchPending = false;
+            scheduleOnSlide();
+            if (status == Status.EXPANDED) {
+                dispatchOnExpanded();
+            } else if (status == Status.COLLAPSED) {
+                dispatchOnCollapsed();
+            }
+        }
     }
 
     @Override
     public void draw(Canvas canvas) {
         super.draw(canvas);
+        if (contentView == null || usesElevationShadow() || !isShadowEnabled()) {
+            return;
+        }
 
+        int shadowPixels = (int) (shadowHeight * density);
         int left = contentView.getLeft();
-        int top = contentView.getTop() - ((int) (shadowHeight * ViewUnit.getDensity(getContext())));
+        int top = contentView.getTop() - shadowPixels;
         int right = contentView.getRight();
-        int bottom = contentView.getTop();
-        shadowDrawable.setBounds(left, top, right, bottom);
-        shadowDrawable.draw(canvas);
+        if (shadowMode != ShadowMode.CACHED || shadowTrimmed) {
+            shadowDrawable.setBounds(left, top, right, contentView.getTop());
+            shadowDrawable.draw(canvas);
+            return;
+        }
+
+        int width = right - left;
+        if (width <= 0 || shadowPixels <= 0) {
+            return;
+        }
+        if (shadowBitmap == null || shadowBitmap.getWidth() != width || shadowBitmap.getHeight() != shadowPixels) {
+            releaseShadowBitmap();
+            shadowBitmap = Bitmap.createBitmap(width, shadowPixels, Bitmap.Config.ARGB_8888);
+            shadowDrawable.setBounds(0, 0, width, shadowPixels);
+            shadowDrawable.draw(new Canvas(shadowBitmap));
+        }
+        canvas.drawBitmap(shadowBitmap, left, top, null);
     }
 
-    private int computeTopPosition(float slideOffset) {
-        int slidePixelOffset = (int) (slideOffset * slideRange);
-        return getMeasuredHeight() - getPaddingBottom() - coverHeight - slidePixelOffset;
+    private boolean usesElevationShadow() {
+        return shadowMode == ShadowMode.ELEVATION && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
     }
 
-    private float computeSlideOffset(int topPosition) {
-        return (computeTopPosition(0f) - ((float) topPosition)) / ((float) slideRange);
+    private boolean isShadowEnabled() {
+        return qualityController == null || qualityController.isShadowEnabled();
     }
 
-    @Override
-    public void computeScroll() {
-        if (dragHelper != null && dragHelper.continueSettling(true)) {
-            if (!isEnabled()) {
-                dragHelper.abort();
-                return;
+    private void invalidateShadow(int oldTop, int newTop) {
+        if (contentView == null || usesElevationShadow()) {
+            return;
+        }
+
+        int shadowPixels = (int) (shadowHeight * density);
+        invalidate(contentView.getLeft(), Math.min(oldTop, newTop) - shadowPixels, contentView.getRight(), Math.max(oldTop, newTop));
+    }
+
+    private void applyShadowMode() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+
+        if (shadowTarget != null && shadowTarget != contentView) {
+            applyElevation(shadowTarget, 0f);
+        }
+        shadowTarget = contentView;
+        if (contentView != null) {
+            applyElevation(contentView, usesElevationShadow() && isShadowEnabled() ? shadowHeight * density : 0f);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static void applyElevation(View view, float elevation) {
+        if (elevation > 0f && view.getBackground() == null) {
+            view.setOutlineProvider(ViewOutlineProvider.BOUNDS);
+        }
+        view.setElevation(elevation);
+    }
+
+    private void releaseShadowBitmap() {
+        if (shadowBitmap != null) {
+            shadowBitmap.recycle();
+            shadowBitmap = null;
+        }
+    }
+
+    public void onTrimMemory(int level) {
+        if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            return;
+        }
+
+        if (switcherView instanceof SwitcherStrip) {
+            ((SwitcherStrip) switcherView).onTrimMemory(level);
+        }
+        if (status == Status.COLLAPSED && !settleSpring.isRunning()) {
+            releaseShadowBitmap();
+            shadowTrimmed = true;
+        }
+
+        if (TrimLevel.isLow(level)) {
+            if (pagePool != null) {
+                pagePool.trimToSize(0);
             }
-            ViewCompat.postInvalidateOnAnimation(this);
+            if (snapshotCache != null) {
+                int maxBytes = TrimLevel.isCritical(level) ? 0 : snapshotCache.size() / 2;
+                snapshotCache.trimToSize(maxBytes);
+            }
+        }
+    }
+
+    public long getRetainedBytes() {
+        long bytes = 0L;
+        if (shadowBitmap != null) {
+            bytes += shadowBitmap.getRowBytes() * shadowBitmap.getHeight();
+        }
+        if (snapshotCache != null) {
+            bytes += snapshotCache.getRetainedBytes();
         }
+        return bytes;
+    }
+
+    private int computeTopPosition(float slideOffset) {
+        return PanelGeometry.computeTopPosition(getMeasuredHeight(), getPaddingBottom(), coverHeight, slideRange, slideOffset);
+    }
+
+    private float computeSlideOffset(int topPosition) {
+        return PanelGeometry.computeSlideOffset(computeTopPosition(0f), slideRange, topPosition);
     }
 
     @Override
@@ -338,37 +766,245 @@ public class SwitcherPanel extends ViewGroup {
     }
 
     private boolean shouldShowContentView(@NonNull MotionEvent motionEvent) {
-        int[] location = new int[2];
+        if (status != Status.COLLAPSED) {
+            return false;
+        }
         contentView.getLocationOnScreen(location);
 
         int left = location[0];
         int right = left + contentView.getWidth();
         int top = location[1];
         int bottom = top + contentView.getHeight();
-        return status == Status.COLLAPSED
-                && left <= motionEvent.getRawX()
+        return left <= motionEvent.getRawX()
                 && motionEvent.getRawX() <= right
                 && top <= motionEvent.getRawY()
                 && motionEvent.getRawY() <= bottom;
     }
 
+    @Override
+    public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+        return isEnabled()
+                && child == contentView
+                && (nestedScrollAxes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0;
+    }
+
+    @Override
+    public void onNestedScrollAccepted(View child, View target, int nestedScrollAxes) {
+        nestedScrollingParentHelper.onNestedScrollAccepted(child, target, nestedScrollAxes);
+        nestedSettleInterrupted = settleSpring.isRunning();
+        if (nestedSettleInterrupted) {
+            nestedSettleTarget = (int) settleSpring.getTarget();
+            nestedSettleVelocity = settleSpring.getVelocity();
+        }
+        stopSettle();
+        nestedDragging = false;
+    }
+
+    @Override
+    public int getNestedScrollAxes() {
+        return nestedScrollingParentHelper.getNestedScrollAxes();
+    }
+
+    @Override
+    public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+        if (dy > 0) {
+            consumed[1] = moveContentBy(-dy);
+        }
+    }
+
+    @Override
+    public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+        if (dyUnconsumed < 0) {
+            moveContentBy(-dyUnconsumed);
+        }
+    }
+
+    @Override
+    public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+        if (contentView == null || contentView.getTop() == computeTopPosition(1f)) {
+            return false;
+        }
+
+        int top = SettleSpring.chooseTarget(contentView.getTop(), -velocityY, computeTopPosition(1f), computeTopPosition(0f));
+        startSettle(top, -velocityY);
+        nestedDragging = false;
+        return true;
+    }
+
+    @Override
+    public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
+        return false;
+    }
+
+    @Override
+    public void onStopNestedScroll(View target) {
+        nestedScrollingParentHelper.onStopNestedScroll(target);
+        boolean interrupted = nestedSettleInterrupted;
+        nestedSettleInterrupted = false;
+        if (settleSpring.isRunning() || contentView == null) {
+            nestedDragging = false;
+            return;
+        } else if (!nestedDragging) {
+            if (interrupted) {
+                startSettle(nestedSettleTarget, nestedSettleVelocity);
+            }
+            return;
+        }
+
+        nestedDragging = false;
+        int top = contentView.getTop();
+        if (top == computeTopPosition(1f) || top == computeTopPosition(0f)) {
+            onMotionStopped();
+        } else {
+            startSettle(SettleSpring.chooseTarget(top, 0f, computeTopPosition(1f), computeTopPosition(0f)), 0f);
+        }
+    }
+
+    private int moveContentBy(int dy) {
+        if (contentView == null) {
+            return 0;
+        }
+
+        int top = contentView.getTop();
+        int newTop = PanelGeometry.clampTop(top + dy, computeTopPosition(1f), computeTopPosition(0f));
+        if (newTop == top) {
+            return 0;
+        }
+
+        if (!nestedDragging) {
+            nestedDragging = true;
+            inflateSwitcher();
+            setAllChildrenVisible();
+            onMotionStarted(FrameStats.Phase.DRAG);
+        }
+        contentView.offsetTopAndBottom(newTop - top);
+        fling(newTop);
+        invalidateShadow(top, newTop);
+        return top - newTop;
+    }
+
+    public void showPage(Object key) {
+        if (pagePool == null) {
+            throw new IllegalStateException("showPage() requires a ContentPagePool.");
+        } else if (getChildCount() != 2) {
+            throw new IllegalStateException("SwitcherPanel layout must have exactly 2 children!");
+        }
+
+        if (key != null && key.equals(currentPageKey)) {
+            return;
+        }
+        View oldPage = getChildAt(1);
+
+        View page = pagePool.obtain(this, key);
+        if (page == oldPage) {
+            setCurrentPageKey(key);
+            return;
+        }
+
+        boolean layers = layersActive;
+        disableChildLayers();
+
+        ViewGroup.LayoutParams params = page.getLayoutParams();
+        if (params == null || !checkLayoutParams(params)) {
+            params = params == null ? generateDefaultLayoutParams() : generateLayoutParams(params);
+        }
+        removeViewAt(1);
+        addView(page, 1, params);
+        pagePool.recycle(currentPageKey, oldPage);
+
+        contentView = page;
+        applyShadowMode();
+        setCurrentPageKey(key);
+        if (layers) {
+            enableChildLayers();
+        }
+    }
+
+    public void closePage(Object key) {
+        if (key != null && key.equals(currentPageKey)) {
+            throw new IllegalStateException("Cannot close the page that is currently shown.");
+        }
+        if (pagePool != null) {
+            pagePool.release(key);
+        }
+        if (snapshotCache != null && key != null) {
+            snapshotCache.remove(key);
+        }
+    }
+
+    public boolean isSwitcherInflated() {
+        return getChildCount() > 0 && !(getChildAt(0) instanceof ViewStub);
+    }
+
+    public View inflateSwitcher() {
+        cancelPrewarm();
+        if (getChildCount() == 0 || !(getChildAt(0) instanceof ViewStub)) {
+            return switcherView;
+        }
+
+        ((ViewStub) getChildAt(0)).inflate();
+        switcherView = getChildAt(0);
+        applyParallaxForCurrentSlideOffset();
+        if (onSwitcherInflateListener != null) {
+            onSwitcherInflateListener.onSwitcherInflated(switcherView);
+        }
+        return switcherView;
+    }
+
+    private void schedulePrewarm() {
+        if (!prewarmScheduled && !isSwitcherInflated()) {
+            prewarmScheduled = true;
+            Looper.myQueue().addIdleHandler(prewarmIdleHandler);
+        }
+    }
+
+    private void cancelPrewarm() {
+        if (prewarmScheduled) {
+            prewarmScheduled = false;
+            Looper.myQueue().removeIdleHandler(prewarmIdleHandler);
+        }
+    }
+
     public void expanded() {
         smoothSlideTo(1f);
         status = Status.EXPANDED;
     }
 
     public void collapsed() {
+        inflateSwitcher();
+        if (status == Status.EXPANDED) {
+            captureSnapshot();
+        }
         smoothSlideTo(0f);
         status = Status.COLLAPSED;
     }
 
     private void fling(int top) {
+        if (status == Status.EXPANDED && slideOffset == 1f) {
+            captureSnapshot();
+        }
         status = Status.FLING;
         slideOffset = computeSlideOffset(top);
 
+        applyQuality();
         applyParallaxForCurrentSlideOffset();
         dispatchOnFling();
+        scheduleOnSlide();
+
+        if (slideOffset < 0) {
+            beginOverscrollPhase();
+        } else {
+            endOverscrollPhase();
+        }
 
+        if (overscrollMode == OverscrollMode.SCALE) {
+            applyOverscrollScale(top);
+        } else {
+            applyOverscrollResize(top);
+        }
+    }
+
+    private void applyOverscrollResize(int top) {
         LayoutParams layoutParams = (LayoutParams) switcherView.getLayoutParams();
         int defaultHeight = getHeight() - getPaddingBottom() - getPaddingTop() - coverHeight;
         if (slideOffset < 0) {
@@ -380,36 +1016,203 @@ public class SwitcherPanel extends ViewGroup {
         }
     }
 
-    private void dispatchOnExpanded() {
-        if (statusListener != null) {
-            statusListener.onExpanded();
+    private void applyOverscrollScale(int top) {
+        int height = switcherView.getHeight();
+        if (slideOffset < 0 && height > 0) {
+            switcherView.setPivotY(0f);
+            switcherView.setScaleY(((float) (top - getPaddingBottom())) / height);
+        } else if (switcherView.getScaleY() != 1f) {
+            switcherView.setScaleY(1f);
         }
     }
 
-    private void dispatchOnCollapsed() {
-        if (statusListener != null) {
-            statusListener.onCollapsed();
+    private void beginFramePhase(FrameStats.Phase phase) {
+        if (framePhase == phase) {
+            return;
+        }
+
+        endFramePhase();
+        FrameStats stats = getActiveFrameStats();
+        if (stats != null) {
+            framePhase = phase;
+            phaseFrameStats = stats;
+            stats.begin(phase);
+        }
+    }
+
+    private void endFramePhase() {
+        if (phaseFrameStats != null && framePhase != null) {
+            phaseFrameStats.end(framePhase);
+        }
+        framePhase = null;
+    }
+
+    private void beginOverscrollPhase() {
+        FrameStats stats = getActiveFrameStats();
+        if (stats != null && !overscrollPhase) {
+            overscrollPhase = true;
+            phaseFrameStats = stats;
+            stats.begin(FrameStats.Phase.OVERSCROLL);
+        }
+    }
+
+    private void endOverscrollPhase() {
+        if (phaseFrameStats != null && overscrollPhase) {
+            phaseFrameStats.end(FrameStats.Phase.OVERSCROLL);
+        }
+        overscrollPhase = false;
+    }
+
+    private FrameStats getActiveFrameStats() {
+        if (frameStats != null) {
+            return frameStats;
         }
+        return qualityController != null ? qualityController.getFrameStats() : null;
+    }
+
+    private void attachQualityController(FrameStats oldFrameStats) {
+        if (qualityController == null) {
+            return;
+        }
+
+        if (frameStats != null) {
+            qualityController.setFrameStats(frameStats);
+        } else if (oldFrameStats != null && qualityController.getFrameStats() == oldFrameStats) {
+            qualityController.setFrameStats(null);
+        }
+    }
+
+    private void applyQuality() {
+        QualityController.Quality quality = qualityController != null ? qualityController.getQuality() : QualityController.Quality.FULL;
+        if (quality == appliedQuality) {
+            return;
+        }
+
+        appliedQuality = quality;
+        applyShadowMode();
+        invalidate();
+    }
+
+    private void captureSnapshot() {
+        if (snapshotCache != null && snapshotKey != null && contentView != null) {
+            snapshotCache.capture(contentView, snapshotKey);
+        }
+    }
+
+    private void dispatchOnExpanded() {
+        statusDispatcher.dispatch(Status.EXPANDED);
+    }
+
+    private void dispatchOnCollapsed() {
+        statusDispatcher.dispatch(Status.COLLAPSED);
     }
 
     private void dispatchOnFling() {
-        if (statusListener != null) {
-            statusListener.onFling();
+        statusDispatcher.dispatch(Status.FLING);
+    }
+
+    private void scheduleOnSlide() {
+        if (slideListener != null) {
+            slideFrameCallback.post();
+        }
+    }
+
+    private void dispatchOnSlide(long frameTimeNanos) {
+        if (slideListener == null) {
+            return;
         }
+
+        float velocity = 0f;
+        long elapsed = frameTimeNanos - lastSlideFrameTimeNanos;
+        if (0 < elapsed && elapsed < SLIDE_VELOCITY_TIMEOUT) {
+            velocity = (slideOffset - lastSlideOffset) * 1000000000f / elapsed;
+        }
+        lastSlideOffset = slideOffset;
+        lastSlideFrameTimeNanos = frameTimeNanos;
+        slideListener.onSlide(slideOffset, velocity, status);
     }
 
     private boolean smoothSlideTo(float slideOffset) {
-        if (!isEnabled()) {
+        if (!isEnabled() || contentView == null) {
             return false;
         }
 
         int top = computeTopPosition(slideOffset);
-        if (dragHelper.smoothSlideViewTo(contentView, contentView.getLeft(), top)) {
-            setAllChildrenVisible();
-            ViewCompat.postInvalidateOnAnimation(this);
-            return true;
+        if (contentView.getTop() == top && !settleSpring.isRunning()) {
+            return false;
+        }
+        startSettle(top, settleSpring.isRunning() ? settleSpring.getVelocity() : 0f);
+        return true;
+    }
+
+    private void startSettle(int target, float velocity) {
+        settleSpring.start(contentView.getTop(), velocity, target);
+        lastSettleFrameTimeNanos = 0L;
+        setAllChildrenVisible();
+        onMotionStarted(FrameStats.Phase.SETTLE);
+        AnimationEngine.getInstance().start(settleAnimation, AnimationEngine.DURATION_INFINITE);
+    }
+
+    private void stopSettle() {
+        settleSpring.stop();
+        AnimationEngine.getInstance().cancel(settleAnimation);
+    }
+
+    private boolean onSettleFrame(long frameTimeNanos) {
+        if (!settleSpring.isRunning() || contentView == null) {
+            return false;
+        }
+
+        float seconds = 1f / 60f;
+        if (lastSettleFrameTimeNanos != 0L) {
+            seconds = Math.min(0.05f, (frameTimeNanos - lastSettleFrameTimeNanos) / 1000000000f);
+        }
+        lastSettleFrameTimeNanos = frameTimeNanos;
+
+        boolean running = settleSpring.step(seconds);
+        settleSpring.clamp(computeTopPosition(1f), computeTopPosition(0f));
+        int top = Math.round(settleSpring.getPosition());
+        int dy = top - contentView.getTop();
+        if (dy != 0) {
+            contentView.offsetTopAndBottom(dy);
+            fling(top);
+            invalidateShadow(top - dy, top);
+        }
+        return running;
+    }
+
+    private void onMotionStarted(FrameStats.Phase phase) {
+        shadowTrimmed = false;
+        setSwitcherFillBudgeted(true);
+        enableChildLayers();
+        beginFramePhase(phase);
+    }
+
+    private void onMotionStopped() {
+        setSwitcherFillBudgeted(false);
+        disableChildLayers();
+        endFramePhase();
+        endOverscrollPhase();
+        applyQuality();
+
+        slideOffset = computeSlideOffset(contentView.getTop());
+        applyParallaxForCurrentSlideOffset();
+        scheduleOnSlide();
+
+        if (slideOffset == 1f && status != Status.EXPANDED) {
+            status = Status.EXPANDED;
+            dispatchOnExpanded();
+        } else if (slideOffset == 0f && status != Status.COLLAPSED) {
+            status = Status.COLLAPSED;
+            dispatchOnCollapsed();
+        }
+    }
+
+    // Spreads the first bind of the switcher's cards over the frames of a slide.
+    private void setSwitcherFillBudgeted(boolean budgeted) {
+        if (switcherView instanceof SwitcherStrip) {
+            ((SwitcherStrip) switcherView).setFillBudgeted(budgeted);
         }
-        return false;
     }
 
     private void setAllChildrenVisible() {
@@ -421,9 +1224,48 @@ public class SwitcherPanel extends ViewGroup {
         }
     }
 
+    private void enableChildLayers() {
+        if (!hardwareLayersEnabled || layersActive) {
+            return;
+        }
+
+        layersActive = true;
+        boolean build = isHardwareAccelerated() && getWindowToken() != null;
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            LayoutParams layoutParams = (LayoutParams) child.getLayoutParams();
+            layoutParams.savedLayerType = child.getLayerType();
+            if (layoutParams.hardwareLayer && layoutParams.savedLayerType != LAYER_TYPE_HARDWARE) {
+                child.setLayerType(LAYER_TYPE_HARDWARE, null);
+                if (build) {
+                    child.buildLayer();
+                }
+            }
+        }
+    }
+
+    private void disableChildLayers() {
+        if (!layersActive) {
+            return;
+        }
+
+        layersActive = false;
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            LayoutParams layoutParams = (LayoutParams) child.getLayoutParams();
+            if (child.getLayerType() != layoutParams.savedLayerType) {
+                child.setLayerType(layoutParams.savedLayerType, null);
+            }
+        }
+    }
+
     private void applyParallaxForCurrentSlideOffset() {
-        if (parallaxOffset > 0) {
-            float offset = parallaxOffset * ViewUnit.getDensity(getContext());
+        if (qualityController != null && !qualityController.isParallaxEnabled()) {
+            if (switcherView.getTranslationY() != 0f) {
+                switcherView.setTranslationY(0f);
+            }
+        } else if (parallaxOffset > 0) {
+            float offset = parallaxOffset * density;
             switcherView.setTranslationY(-(offset * Math.max(slideOffset, 0)));
         }
     }
@@ -0,0 +1,886 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.content.Context;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.widget.ScrollerCompat;
+import android.util.AttributeSet;
+import android.view.Display;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+
+import java.util.ArrayList;
+
+public class SwitcherStrip extends ViewGroup {
+    private SwitcherAdapter<?> adapter;
+    public SwitcherAdapter<?> getAdapter() {
+        return adapter;
+    }
+    public void setAdapter(SwitcherAdapter<?> adapter) {
+        if (this.adapter != null) {
+            this.adapter.unregisterAdapterObserver(adapterObserver);
+            recycleAllViewHolders();
+        }
+        if (this.adapter != adapter) {
+            viewPool.clear();
+        }
+
+        this.adapter = adapter;
+        if (adapter != null) {
+            adapter.registerAdapterObserver(adapterObserver);
+        }
+        itemWidth = 0;
+        scroller.abortAnimation();
+        super.scrollTo(0, 0);
+        requestLayout();
+    }
+
+    private SwitcherViewPool viewPool = new SwitcherViewPool();
+    public SwitcherViewPool getViewPool() {
+        return viewPool;
+    }
+    public void setViewPool(SwitcherViewPool viewPool) {
+        this.viewPool = viewPool != null ? viewPool : new SwitcherViewPool();
+    }
+
+    private static final int OFFSCREEN_ITEM_COUNT_DEFAULT = 1;
+    private int offscreenItemCount = OFFSCREEN_ITEM_COUNT_DEFAULT;
+    public int getOffscreenItemCount() {
+        return offscreenItemCount;
+    }
+    public void setOffscreenItemCount(int offscreenItemCount) {
+        this.offscreenItemCount = Math.max(0, offscreenItemCount);
+        requestLayout();
+    }
+
+    private boolean prefetchEnabled = true;
+    public boolean isPrefetchEnabled() {
+        return prefetchEnabled;
+    }
+    public void setPrefetchEnabled(boolean prefetchEnabled) {
+        this.prefetchEnabled = prefetchEnabled;
+        if (!prefetchEnabled) {
+            prefetchFrameCallback.remove();
+            removeCallbacks(prefetchRunnable);
+            prefetchPosted = false;
+        }
+    }
+
+    private static final int PREFETCH_MAX_ITEMS = 4;
+    private static final int PREFETCH_LOOKAHEAD_FRAMES = 2;
+    private final ArrayList<SwitcherAdapter.ViewHolder> prefetched = new ArrayList<SwitcherAdapter.ViewHolder>();
+    private long frameIntervalNanos = 16666667L;
+    private long frameStartNanos = 0L;
+    private long averageBindNanos = 0L;
+    private int lastScrollDelta = 0;
+    private int scrollDirection = 0;
+    private boolean prefetchPosted = false;
+
+    private final Runnable prefetchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            prefetchPosted = false;
+            prefetch();
+        }
+    };
+
+    private boolean fillBudgeted = false;
+    void setFillBudgeted(boolean fillBudgeted) {
+        this.fillBudgeted = fillBudgeted;
+        if (!fillBudgeted && fillFrameCallback.isPosted()) {
+            fillFrameCallback.remove();
+            fill();
+        }
+    }
+
+    private final FrameCallbackCompat fillFrameCallback = new FrameCallbackCompat() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            fill();
+        }
+    };
+
+    private final FrameCallbackCompat prefetchFrameCallback = new FrameCallbackCompat() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            frameStartNanos = frameTimeNanos;
+            if (!prefetchPosted) {
+                prefetchPosted = true;
+                SwitcherStrip.this.post(prefetchRunnable);
+            }
+        }
+    };
+
+    public interface OnItemTouchListener {
+        boolean onInterceptTouchEvent(SwitcherStrip strip, MotionEvent motionEvent);
+        void onTouchEvent(SwitcherStrip strip, MotionEvent motionEvent);
+    }
+    private OnItemTouchListener onItemTouchListener;
+    public void setOnItemTouchListener(OnItemTouchListener onItemTouchListener) {
+        this.onItemTouchListener = onItemTouchListener;
+        itemTouchActive = false;
+    }
+    private boolean itemTouchActive = false;
+
+    public static class LayoutParams extends ViewGroup.LayoutParams {
+        SwitcherAdapter.ViewHolder holder;
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(ViewGroup.LayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+        }
+    }
+
+    static class SavedState extends BaseSavedState {
+        private int position;
+        private float positionOffset;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            this.position = in.readInt();
+            this.positionOffset = in.readFloat();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(position);
+            out.writeFloat(positionOffset);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+    private int pendingPosition = SwitcherAdapter.NO_POSITION;
+    private float pendingPositionOffset = 0f;
+
+    private final ArrayList<SwitcherAdapter.ViewHolder> attached = new ArrayList<SwitcherAdapter.ViewHolder>();
+    private int itemWidth = 0;
+    private boolean inLayout = false;
+
+    private ScrollerCompat scroller;
+    private VelocityTracker velocityTracker;
+    private int touchSlop;
+    private int minFlingVelocity;
+    private int maxFlingVelocity;
+    private float downX;
+    private float downY;
+    private float lastX;
+    private boolean dragging = false;
+
+    private final SwitcherAdapter.AdapterObserver adapterObserver = new SwitcherAdapter.AdapterObserver() {
+        @Override
+        public void onChanged() {
+            recycleAllViewHolders();
+            requestLayout();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            int anchor = getFirstVisiblePosition();
+            for (int i = 0; i < attached.size(); i++) {
+                SwitcherAdapter.ViewHolder holder = attached.get(i);
+                if (holder.position >= positionStart) {
+                    holder.position += itemCount;
+                }
+            }
+            for (int i = 0; i < prefetched.size(); i++) {
+                SwitcherAdapter.ViewHolder holder = prefetched.get(i);
+                if (holder.position >= positionStart) {
+                    holder.position += itemCount;
+                }
+            }
+
+            if (itemWidth > 0 && getScrollX() > 0 && positionStart <= anchor) {
+                SwitcherStrip.super.scrollTo(getScrollX() + itemCount * itemWidth, 0);
+            }
+            requestLayout();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            int anchor = getFirstVisiblePosition();
+            int positionEnd = positionStart + itemCount;
+            for (int i = attached.size() - 1; i >= 0; i--) {
+                SwitcherAdapter.ViewHolder holder = attached.get(i);
+                if (holder.position >= positionEnd) {
+                    holder.position -= itemCount;
+                } else if (holder.position >= positionStart) {
+                    recycleViewHolderAt(i);
+                }
+            }
+            for (int i = prefetched.size() - 1; i >= 0; i--) {
+                SwitcherAdapter.ViewHolder holder = prefetched.get(i);
+                if (holder.position >= positionEnd) {
+                    holder.position -= itemCount;
+                } else if (holder.position >= positionStart) {
+                    recyclePrefetchedViewHolderAt(i);
+                }
+            }
+
+            int removedBefore = Math.max(0, Math.min(positionEnd, anchor) - positionStart);
+            if (itemWidth > 0 && removedBefore > 0) {
+                SwitcherStrip.super.scrollTo(Math.max(0, getScrollX() - removedBefore * itemWidth), 0);
+            }
+            requestLayout();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            for (int i = 0; i < attached.size(); i++) {
+                SwitcherAdapter.ViewHolder holder = attached.get(i);
+                if (positionStart <= holder.position && holder.position < positionStart + itemCount) {
+                    adapter.bindViewHolder(holder, holder.position);
+                }
+            }
+            for (int i = prefetched.size() - 1; i >= 0; i--) {
+                int position = prefetched.get(i).position;
+                if (positionStart <= position && position < positionStart + itemCount) {
+                    recyclePrefetchedViewHolderAt(i);
+                }
+            }
+        }
+    };
+
+    public SwitcherStrip(Context context) {
+        this(context, null);
+    }
+
+    public SwitcherStrip(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public SwitcherStrip(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        this.touchSlop = configuration.getScaledTouchSlop();
+        this.minFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        this.maxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+        this.scroller = ScrollerCompat.create(context);
+        setWillNotDraw(true);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        Display display = ((WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay();
+        float refreshRate = display.getRefreshRate();
+        if (refreshRate >= 30f) {
+            frameIntervalNanos = (long) (1000000000L / refreshRate);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        fillFrameCallback.remove();
+        prefetchFrameCallback.remove();
+        removeCallbacks(prefetchRunnable);
+        prefetchPosted = false;
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        if (pendingPosition != SwitcherAdapter.NO_POSITION || itemWidth <= 0) {
+            savedState.position = Math.max(0, pendingPosition);
+            savedState.positionOffset = pendingPositionOffset;
+        } else {
+            int scrollX = getScrollX() - getPaddingLeft();
+            savedState.position = Math.max(0, scrollX / itemWidth);
+            savedState.positionOffset = ((float) (scrollX - savedState.position * itemWidth)) / itemWidth;
+        }
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        pendingPosition = savedState.position;
+        pendingPositionOffset = savedState.positionOffset;
+        requestLayout();
+    }
+
+    @Override
+    protected ViewGroup.LayoutParams generateDefaultLayoutParams() {
+        return new LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.MATCH_PARENT);
+    }
+
+    @Override
+    protected ViewGroup.LayoutParams generateLayoutParams(ViewGroup.LayoutParams layoutParams) {
+        return new LayoutParams(layoutParams);
+    }
+
+    @Override
+    public ViewGroup.LayoutParams generateLayoutParams(AttributeSet attrs) {
+        return new LayoutParams(getContext(), attrs);
+    }
+
+    @Override
+    protected boolean checkLayoutParams(ViewGroup.LayoutParams layoutParams) {
+        return layoutParams instanceof LayoutParams;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int widthSize = MeasureSpec.getSize(widthMeasureSpec);
+        int heightSize = MeasureSpec.getSize(heightMeasureSpec);
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+            widthSize = getSuggestedMinimumWidth();
+        }
+        if (MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+            heightSize = getSuggestedMinimumHeight();
+        }
+        setMeasuredDimension(widthSize, heightSize);
+
+        for (int i = 0; i < getChildCount(); i++) {
+            measureItem(getChildAt(i));
+        }
+    }
+
+    private void measureItem(View child) {
+        ViewGroup.LayoutParams layoutParams = child.getLayoutParams();
+        int width = getMeasuredWidth() - getPaddingLeft() - getPaddingRight();
+        int height = getMeasuredHeight() - getPaddingTop() - getPaddingBottom();
+
+        int childWidthSpec;
+        if (itemWidth > 0) {
+            childWidthSpec = MeasureSpec.makeMeasureSpec(itemWidth, MeasureSpec.EXACTLY);
+        } else if (layoutParams.width == ViewGroup.LayoutParams.WRAP_CONTENT) {
+            childWidthSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        } else if (layoutParams.width == ViewGroup.LayoutParams.MATCH_PARENT) {
+            childWidthSpec = MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY);
+        } else {
+            childWidthSpec = MeasureSpec.makeMeasureSpec(layoutParams.width, MeasureSpec.EXACTLY);
+        }
+
+        int childHeightSpec;
+        if (layoutParams.height == ViewGroup.LayoutParams.WRAP_CONTENT) {
+            childHeightSpec = MeasureSpec.makeMeasureSpec(height, MeasureSpec.AT_MOST);
+        } else if (layoutParams.height == ViewGroup.LayoutParams.MATCH_PARENT) {
+            childHeightSpec = MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY);
+        } else {
+            childHeightSpec = MeasureSpec.makeMeasureSpec(layoutParams.height, MeasureSpec.EXACTLY);
+        }
+
+        child.measure(childWidthSpec, childHeightSpec);
+    }
+
+    private void layoutItem(SwitcherAdapter.ViewHolder holder) {
+        View child = holder.itemView;
+        int left = getPaddingLeft() + holder.position * itemWidth;
+        int top = getPaddingTop();
+        child.layout(left, top, left + child.getMeasuredWidth(), top + child.getMeasuredHeight());
+    }
+
+    @Override
+    protected void onLayout(boolean change, int l, int t, int r, int b) {
+        inLayout = true;
+        if (adapter == null || adapter.getItemCount() == 0) {
+            recycleAllViewHolders();
+            super.scrollTo(0, 0);
+            inLayout = false;
+            return;
+        }
+
+        // Every card is measured at the first card's width, so the stride matches each card.
+        if (itemWidth <= 0) {
+            SwitcherAdapter.ViewHolder holder = attached.isEmpty() ? addViewHolder(0, 0) : attached.get(0);
+            itemWidth = Math.max(1, holder.itemView.getMeasuredWidth());
+            for (int i = 0; i < attached.size(); i++) {
+                measureItem(attached.get(i).itemView);
+            }
+        }
+
+        if (pendingPosition != SwitcherAdapter.NO_POSITION) {
+            int scrollX = getPaddingLeft() + pendingPosition * itemWidth + (int) (pendingPositionOffset * itemWidth);
+            pendingPosition = SwitcherAdapter.NO_POSITION;
+            super.scrollTo(scrollX, 0);
+        }
+        super.scrollTo(clampScrollX(getScrollX()), 0);
+        for (int i = 0; i < attached.size(); i++) {
+            layoutItem(attached.get(i));
+        }
+        fill();
+        inLayout = false;
+    }
+
+    private void fill() {
+        if (adapter == null || itemWidth <= 0) {
+            return;
+        }
+
+        int count = adapter.getItemCount();
+        int scrollX = getScrollX() - getPaddingLeft();
+        int first = Math.max(0, scrollX / itemWidth - offscreenItemCount);
+        int last = Math.min(count - 1, (scrollX + getWidth()) / itemWidth + offscreenItemCount);
+
+        for (int i = attached.size() - 1; i >= 0; i--) {
+            int position = attached.get(i).position;
+            if (position < first || position > last) {
+                recycleViewHolderAt(i);
+            }
+        }
+
+        long deadline = System.nanoTime() + frameIntervalNanos / 2;
+        int bound = 0;
+        int index = 0;
+        for (int position = first; position <= last; position++) {
+            if (index >= attached.size() || attached.get(index).position != position) {
+                long now = System.nanoTime();
+                if (fillBudgeted && bound > 0 && now + averageBindNanos > deadline) {
+                    fillFrameCallback.post();
+                    return;
+                }
+
+                addViewHolder(position, index);
+                long elapsed = System.nanoTime() - now;
+                averageBindNanos = averageBindNanos == 0 ? elapsed : (averageBindNanos * 3 + elapsed) / 4;
+                bound++;
+            }
+            index++;
+        }
+    }
+
+    private SwitcherAdapter.ViewHolder addViewHolder(int position, int index) {
+        SwitcherAdapter.ViewHolder holder = takePrefetchedViewHolder(position);
+        if (holder == null) {
+            holder = obtainViewHolder(position);
+        }
+
+        View child = holder.itemView;
+        attached.add(index, holder);
+        addViewInLayout(child, index, child.getLayoutParams(), true);
+        measureItem(child);
+        if (itemWidth > 0) {
+            layoutItem(holder);
+        }
+        if (!inLayout) {
+            invalidate();
+        }
+        return holder;
+    }
+
+    private SwitcherAdapter.ViewHolder obtainViewHolder(int position) {
+        int viewType = adapter.getItemViewType(position);
+        SwitcherAdapter.ViewHolder holder = viewPool.getRecycledView(viewType);
+        if (holder == null) {
+            holder = adapter.createViewHolder(this, viewType);
+        }
+        adapter.bindViewHolder(holder, position);
+
+        View child = holder.itemView;
+        ViewGroup.LayoutParams params = child.getLayoutParams();
+        LayoutParams layoutParams;
+        if (params == null) {
+            layoutParams = (LayoutParams) generateDefaultLayoutParams();
+        } else if (params instanceof LayoutParams) {
+            layoutParams = (LayoutParams) params;
+        } else {
+            layoutParams = new LayoutParams(params);
+        }
+        layoutParams.holder = holder;
+        child.setLayoutParams(layoutParams);
+        return holder;
+    }
+
+    private SwitcherAdapter.ViewHolder takePrefetchedViewHolder(int position) {
+        for (int i = 0; i < prefetched.size(); i++) {
+            SwitcherAdapter.ViewHolder holder = prefetched.get(i);
+            if (holder.position == position) {
+                prefetched.remove(i);
+                return holder;
+            }
+        }
+        return null;
+    }
+
+    private void recyclePrefetchedViewHolderAt(int index) {
+        SwitcherAdapter.ViewHolder holder = prefetched.remove(index);
+        adapter.recycleViewHolder(holder);
+        viewPool.putRecycledView(holder);
+    }
+
+    public void onTrimMemory(int level) {
+        if (adapter == null) {
+            viewPool.clear();
+            return;
+        }
+
+        for (int i = prefetched.size() - 1; i >= 0; i--) {
+            adapter.recycleViewHolder(prefetched.remove(i));
+        }
+        if (TrimLevel.isCritical(level) && itemWidth > 0) {
+            int scrollX = getScrollX() - getPaddingLeft();
+            int first = scrollX / itemWidth;
+            int last = (scrollX + getWidth()) / itemWidth;
+            for (int i = attached.size() - 1; i >= 0; i--) {
+                int position = attached.get(i).position;
+                if (position < first || position > last) {
+                    recycleViewHolderAt(i);
+                }
+            }
+        }
+        viewPool.clear();
+    }
+
+    private void schedulePrefetch() {
+        if (prefetchEnabled && adapter != null) {
+            prefetchFrameCallback.post();
+        }
+    }
+
+    private void prefetch() {
+        if (adapter == null || itemWidth <= 0 || getWidth() <= 0 || attached.isEmpty()) {
+            return;
+        }
+
+        int count = adapter.getItemCount();
+        int distance = Math.abs(lastScrollDelta) * PREFETCH_LOOKAHEAD_FRAMES;
+        int items = Math.min(PREFETCH_MAX_ITEMS, 1 + distance / itemWidth);
+        int start;
+        int end;
+        if (scrollDirection > 0) {
+            start = attached.get(attached.size() - 1).position + 1;
+            end = Math.min(count - 1, start + items - 1);
+        } else if (scrollDirection < 0) {
+            end = attached.get(0).position - 1;
+            start = Math.max(0, end - items + 1);
+        } else {
+            return;
+        }
+
+        for (int i = prefetched.size() - 1; i >= 0; i--) {
+            int position = prefetched.get(i).position;
+            if (position < start - PREFETCH_MAX_ITEMS || position > end + PREFETCH_MAX_ITEMS) {
+                recyclePrefetchedViewHolderAt(i);
+            }
+        }
+
+        long deadline = frameStartNanos + frameIntervalNanos;
+        for (int offset = 0; offset <= end - start; offset++) {
+            int position = scrollDirection < 0 ? end - offset : start + offset;
+            if (findViewHolderForPosition(position) != null || isPrefetched(position)) {
+                continue;
+            }
+
+            long now = System.nanoTime();
+            if (now + averageBindNanos > deadline) {
+                break;
+            }
+
+            SwitcherAdapter.ViewHolder holder = obtainViewHolder(position);
+            measureItem(holder.itemView);
+            prefetched.add(holder);
+
+            long elapsed = System.nanoTime() - now;
+            averageBindNanos = averageBindNanos == 0 ? elapsed : (averageBindNanos * 3 + elapsed) / 4;
+        }
+    }
+
+    private boolean isPrefetched(int position) {
+        for (int i = 0; i < prefetched.size(); i++) {
+            if (prefetched.get(i).position == position) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recycleViewHolderAt(int index) {
+        SwitcherAdapter.ViewHolder holder = attached.remove(index);
+        removeViewInLayout(holder.itemView);
+        holder.itemView.setTranslationX(0f);
+        holder.itemView.setTranslationY(0f);
+        holder.itemView.setAlpha(1f);
+        adapter.recycleViewHolder(holder);
+        viewPool.putRecycledView(holder);
+    }
+
+    private void recycleAllViewHolders() {
+        for (int i = attached.size() - 1; i >= 0; i--) {
+            recycleViewHolderAt(i);
+        }
+        for (int i = prefetched.size() - 1; i >= 0; i--) {
+            recyclePrefetchedViewHolderAt(i);
+        }
+    }
+
+    public SwitcherAdapter.ViewHolder getChildViewHolder(View child) {
+        ViewGroup.LayoutParams layoutParams = child.getLayoutParams();
+        return layoutParams instanceof LayoutParams ? ((LayoutParams) layoutParams).holder : null;
+    }
+
+    public SwitcherAdapter.ViewHolder findViewHolderForPosition(int position) {
+        for (int i = 0; i < attached.size(); i++) {
+            SwitcherAdapter.ViewHolder holder = attached.get(i);
+            if (holder.position == position) {
+                return holder;
+            }
+        }
+        return null;
+    }
+
+    int getItemWidth() {
+        return itemWidth;
+    }
+
+    public int getFirstVisiblePosition() {
+        if (itemWidth <= 0) {
+            return 0;
+        }
+        return Math.max(0, (getScrollX() - getPaddingLeft()) / itemWidth);
+    }
+
+    public void scrollToPosition(int position) {
+        scroller.abortAnimation();
+        scrollTo(getPaddingLeft() + position * itemWidth, 0);
+    }
+
+    private int getMaxScrollX() {
+        if (adapter == null) {
+            return 0;
+        }
+        int range = getPaddingLeft() + adapter.getItemCount() * itemWidth + getPaddingRight();
+        return Math.max(0, range - getWidth());
+    }
+
+    private int clampScrollX(int x) {
+        return Math.max(0, Math.min(x, getMaxScrollX()));
+    }
+
+    @Override
+    public void scrollTo(int x, int y) {
+        int oldScrollX = getScrollX();
+        super.scrollTo(clampScrollX(x), 0);
+        if (!inLayout) {
+            fill();
+        }
+
+        lastScrollDelta = getScrollX() - oldScrollX;
+        if (lastScrollDelta != 0) {
+            scrollDirection = lastScrollDelta > 0 ? 1 : -1;
+            schedulePrefetch();
+        }
+    }
+
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            scrollTo(scroller.getCurrX(), 0);
+            ViewCompat.postInvalidateOnAnimation(this);
+        }
+    }
+
+    @Override
+    protected int computeHorizontalScrollRange() {
+        return adapter == null ? 0 : adapter.getItemCount() * itemWidth;
+    }
+
+    @Override
+    protected int computeHorizontalScrollOffset() {
+        return getScrollX();
+    }
+
+    public View findChildViewUnder(float x, float y) {
+        float contentX = x + getScrollX();
+        float contentY = y + getScrollY();
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            float left = child.getLeft() + child.getTranslationX();
+            float top = child.getTop() + child.getTranslationY();
+            if (left <= contentX && contentX < left + child.getWidth()
+                    && top <= contentY && contentY < top + child.getHeight()) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private boolean dispatchItemTouchIntercept(MotionEvent motionEvent) {
+        if (onItemTouchListener == null || dragging) {
+            return false;
+        }
+
+        if (!itemTouchActive && onItemTouchListener.onInterceptTouchEvent(this, motionEvent)) {
+            itemTouchActive = true;
+        }
+        int action = motionEvent.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            boolean active = itemTouchActive;
+            itemTouchActive = false;
+            return active;
+        }
+        return itemTouchActive;
+    }
+
+    private void cancelItemTouch(MotionEvent motionEvent) {
+        if (onItemTouchListener == null) {
+            return;
+        }
+
+        MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
+        cancelEvent.setAction(MotionEvent.ACTION_CANCEL);
+        onItemTouchListener.onTouchEvent(this, cancelEvent);
+        cancelEvent.recycle();
+        itemTouchActive = false;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent motionEvent) {
+        if (dispatchItemTouchIntercept(motionEvent)) {
+            dragging = false;
+            return true;
+        }
+
+        switch (motionEvent.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                onDown(motionEvent);
+                break;
+            } case MotionEvent.ACTION_MOVE: {
+                trackMovement(motionEvent);
+                checkDragging(motionEvent);
+                break;
+            } case MotionEvent.ACTION_UP:
+              case MotionEvent.ACTION_CANCEL: {
+                dragging = false;
+                recycleVelocityTracker();
+                break;
+            }
+        }
+
+        return dragging;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent motionEvent) {
+        // ACTION_DOWN always goes through onInterceptTouchEvent() first, so it has already been offered.
+        int action = motionEvent.getActionMasked();
+        if (itemTouchActive) {
+            if (action != MotionEvent.ACTION_DOWN) {
+                onItemTouchListener.onTouchEvent(this, motionEvent);
+            }
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                itemTouchActive = false;
+            }
+            return true;
+        } else if (action != MotionEvent.ACTION_DOWN && dispatchItemTouchIntercept(motionEvent)) {
+            dragging = false;
+            return true;
+        }
+
+        switch (action) {
+            case MotionEvent.ACTION_DOWN: {
+                return true;
+            } case MotionEvent.ACTION_MOVE: {
+                trackMovement(motionEvent);
+                checkDragging(motionEvent);
+                if (dragging) {
+                    float x = motionEvent.getX();
+                    scrollBy((int) (lastX - x), 0);
+                    lastX = x;
+                }
+                break;
+            } case MotionEvent.ACTION_UP: {
+                trackMovement(motionEvent);
+                if (dragging) {
+                    velocityTracker.computeCurrentVelocity(1000, maxFlingVelocity);
+                    float velocityX = velocityTracker.getXVelocity();
+                    if (Math.abs(velocityX) >= minFlingVelocity) {
+                        scroller.fling(getScrollX(), 0, (int) -velocityX, 0, 0, getMaxScrollX(), 0, 0);
+                        ViewCompat.postInvalidateOnAnimation(this);
+                    }
+                }
+                dragging = false;
+                recycleVelocityTracker();
+                break;
+            } case MotionEvent.ACTION_CANCEL: {
+                dragging = false;
+                recycleVelocityTracker();
+                break;
+            }
+        }
+
+        return true;
+    }
+
+    private void onDown(MotionEvent motionEvent) {
+        downX = lastX = motionEvent.getX();
+        downY = motionEvent.getY();
+        dragging = !scroller.isFinished();
+        if (dragging) {
+            scroller.abortAnimation();
+            requestParentDisallowInterceptTouchEvent();
+        }
+
+        recycleVelocityTracker();
+        velocityTracker = VelocityTracker.obtain();
+        velocityTracker.addMovement(motionEvent);
+    }
+
+    private void trackMovement(MotionEvent motionEvent) {
+        if (velocityTracker != null) {
+            velocityTracker.addMovement(motionEvent);
+        }
+    }
+
+    private void checkDragging(MotionEvent motionEvent) {
+        if (dragging) {
+            return;
+        }
+
+        float deltaX = motionEvent.getX() - downX;
+        float deltaY = motionEvent.getY() - downY;
+        if (Math.abs(deltaX) > touchSlop && Math.abs(deltaX) > Math.abs(deltaY)) {
+            cancelItemTouch(motionEvent);
+            dragging = true;
+            lastX = motionEvent.getX();
+            requestParentDisallowInterceptTouchEvent();
+        }
+    }
+
+    private void requestParentDisallowInterceptTouchEvent() {
+        if (getParent() != null) {
+            getParent().requestDisallowInterceptTouchEvent(true);
+        }
+    }
+
+    private void recycleVelocityTracker() {
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+
+import java.util.ArrayList;
+
+public class SwitcherViewPool {
+    private static final int MAX_SCRAP_DEFAULT = 5;
+
+    private SparseArray<ArrayList<SwitcherAdapter.ViewHolder>> scrap = new SparseArray<ArrayList<SwitcherAdapter.ViewHolder>>();
+    private SparseIntArray maxScrap = new SparseIntArray();
+
+    public void setMaxRecycledViews(int viewType, int max) {
+        maxScrap.put(viewType, max);
+        ArrayList<SwitcherAdapter.ViewHolder> list = scrap.get(viewType);
+        if (list != null) {
+            while (list.size() > max) {
+                list.remove(list.size() - 1);
+            }
+        }
+    }
+
+    public SwitcherAdapter.ViewHolder getRecycledView(int viewType) {
+        ArrayList<SwitcherAdapter.ViewHolder> list = scrap.get(viewType);
+        if (list != null && !list.isEmpty()) {
+            return list.remove(list.size() - 1);
+        }
+        return null;
+    }
+
+    public void putRecycledView(SwitcherAdapter.ViewHolder holder) {
+        int viewType = holder.getItemViewType();
+        ArrayList<SwitcherAdapter.ViewHolder> list = scrap.get(viewType);
+        if (list == null) {
+            list = new ArrayList<SwitcherAdapter.ViewHolder>();
+            scrap.put(viewType, list);
+        }
+
+        if (list.size() < maxScrap.get(viewType, MAX_SCRAP_DEFAULT)) {
+            list.add(holder);
+        }
+    }
+
+    public int getRecycledViewCount() {
+        int count = 0;
+        for (int i = 0; i < scrap.size(); i++) {
+            count += scrap.valueAt(i).size();
+        }
+        return count;
+    }
+
+    public void clear() {
+        scrap.clear();
+    }
+}
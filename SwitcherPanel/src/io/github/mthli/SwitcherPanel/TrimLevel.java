@@ -0,0 +1,18 @@
+package io.github.mthli.SwitcherPanel;
+
+import android.content.ComponentCallbacks2;
+
+final class TrimLevel {
+    private TrimLevel() {}
+
+    static boolean isLow(int level) {
+        return level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW
+                || level == ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || isCritical(level);
+    }
+
+    static boolean isCritical(int level) {
+        return level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL
+                || level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE;
+    }
+}
@@ -0,0 +1,232 @@
+package io.github.mthli.SwitcherPanel.tests;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.widget.NestedScrollView;
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import io.github.mthli.SwitcherPanel.GestureRecorder;
+import io.github.mthli.SwitcherPanel.GestureReplayer;
+import io.github.mthli.SwitcherPanel.MainActivity;
+import io.github.mthli.SwitcherPanel.R;
+import io.github.mthli.SwitcherPanel.SwipeToDismissListener;
+import io.github.mthli.SwitcherPanel.SwitcherPanel;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public class GestureAllocationTest extends ActivityInstrumentationTestCase2<MainActivity> {
+    private static final long FRAME_MILLIS = 16L;
+    private static final int MOVE_COUNT = 20;
+    private static final int HOLD_COUNT = 10;
+    private static final float MOVE_STEP = 6f;
+    private static final int NESTED_STEP = 8;
+    private static final int SWIPE_VIEW_HEIGHT = 300;
+    private static final long SETTLE_MILLIS = 1000L;
+
+    private SwitcherPanel panel;
+    private final GestureReplayer replayer = new GestureReplayer();
+
+    public GestureAllocationTest() {
+        super(MainActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        panel = (SwitcherPanel) getActivity().findViewById(R.id.switcher_panel);
+        getInstrumentation().waitForIdleSync();
+    }
+
+    // Drags the content down and back through a nested scrolling child, so every MOVE reaches the panel.
+    public void testPanelMovesDoNotAllocate() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                NestedScrollView scrollView = new NestedScrollView(getActivity());
+                scrollView.addView(new View(getActivity()), new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, panel.getHeight() * 2));
+                FrameLayout contentView = (FrameLayout) getActivity().findViewById(R.id.content_view);
+                contentView.addView(scrollView, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+
+        byte[] recording = recordStroke(panel.getWidth() / 2f, panel.getHeight() / 2f, MOVE_STEP);
+        replayOnMainThread(panel, recording);
+        SystemClock.sleep(SETTLE_MILLIS);
+        assertMovesDoNotAllocate(replayOnMainThread(panel, recording), getWarmUpMoves());
+    }
+
+    public void testSwipeToDismissMovesDoNotAllocate() {
+        final View[] views = new View[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                View view = new View(getActivity());
+                view.setOnTouchListener(new SwipeToDismissListener(view, null, new SwipeToDismissListener.DismissCallback() {
+                    @Override
+                    public boolean canDismiss(Object token) {
+                        return true;
+                    }
+
+                    @Override
+                    public void onDismiss(View view, Object token) {
+                        fail("The stroke should restore the view, not dismiss it.");
+                    }
+                }));
+                FrameLayout contentView = (FrameLayout) getActivity().findViewById(R.id.content_view);
+                contentView.addView(view, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, SWIPE_VIEW_HEIGHT));
+                views[0] = view;
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+
+        // Less than half the view height, then held still, so the release restores the view.
+        byte[] recording = recordStroke(views[0].getWidth() / 2f, SWIPE_VIEW_HEIGHT / 2f, -MOVE_STEP);
+        replayOnMainThread(views[0], recording);
+        SystemClock.sleep(SETTLE_MILLIS);
+        assertMovesDoNotAllocate(replayOnMainThread(views[0], recording), getWarmUpMoves());
+        SystemClock.sleep(SETTLE_MILLIS);
+        assertEquals(0f, views[0].getTranslationY(), 0f);
+    }
+
+    public void testNestedDragFramesDoNotAllocate() {
+        final int[] allocations = new int[MOVE_COUNT * 2];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                nestedDrag(null);
+                nestedDrag(allocations);
+            }
+        });
+
+        // Frame 0 starts the drag.
+        for (int i = 1; i < allocations.length; i++) {
+            assertEquals("Nested drag frame " + i + " allocated.", 0, allocations[i]);
+        }
+    }
+
+    public void testDrawableShadowDrawDoesNotAllocate() {
+        assertDrawDoesNotAllocate(SwitcherPanel.ShadowMode.DRAWABLE);
+    }
+
+    public void testCachedShadowDrawDoesNotAllocate() {
+        assertDrawDoesNotAllocate(SwitcherPanel.ShadowMode.CACHED);
+    }
+
+    @SuppressWarnings("deprecation")
+    private void assertDrawDoesNotAllocate(final SwitcherPanel.ShadowMode shadowMode) {
+        final int[] allocations = new int[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SwitcherPanel.ShadowMode oldShadowMode = panel.getShadowMode();
+                panel.setShadowMode(shadowMode);
+                Bitmap bitmap = Bitmap.createBitmap(panel.getWidth(), panel.getHeight(), Bitmap.Config.ARGB_8888);
+                Canvas canvas = new Canvas(bitmap);
+                panel.draw(canvas);
+
+                Debug.startAllocCounting();
+                int start = Debug.getThreadAllocCount();
+                panel.draw(canvas);
+                allocations[0] = Debug.getThreadAllocCount() - start;
+                Debug.stopAllocCounting();
+                bitmap.recycle();
+                panel.setShadowMode(oldShadowMode);
+            }
+        });
+
+        assertEquals("Drawing a frame with the " + shadowMode + " shadow allocated.", 0, allocations[0]);
+    }
+
+    @SuppressWarnings("deprecation")
+    private void nestedDrag(int[] allocations) {
+        View contentView = panel.getChildAt(1);
+        int[] consumed = new int[2];
+        assertTrue(panel.onStartNestedScroll(contentView, contentView, ViewCompat.SCROLL_AXIS_VERTICAL));
+        panel.onNestedScrollAccepted(contentView, contentView, ViewCompat.SCROLL_AXIS_VERTICAL);
+
+        Debug.startAllocCounting();
+        for (int i = 0; i < MOVE_COUNT * 2; i++) {
+            int start = Debug.getThreadAllocCount();
+            if (i < MOVE_COUNT) {
+                panel.onNestedScroll(contentView, 0, 0, 0, -NESTED_STEP);
+            } else {
+                panel.onNestedPreScroll(contentView, 0, NESTED_STEP, consumed);
+            }
+            if (allocations != null) {
+                allocations[i] = Debug.getThreadAllocCount() - start;
+            }
+        }
+        Debug.stopAllocCounting();
+
+        panel.onStopNestedScroll(contentView);
+    }
+
+    private GestureReplayer.Report replayOnMainThread(final View target, final byte[] recording) {
+        final GestureReplayer.Report[] reports = new GestureReplayer.Report[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reports[0] = replayer.replay(target, new ByteArrayInputStream(recording));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+        return reports[0];
+    }
+
+    // The MOVEs up to and past the touch slop start the drag, which may set up layers once.
+    private int getWarmUpMoves() {
+        int slop = ViewConfiguration.get(getActivity()).getScaledTouchSlop();
+        return (int) Math.ceil(slop / MOVE_STEP) + 1;
+    }
+
+    private static void assertMovesDoNotAllocate(GestureReplayer.Report report, int warmUpMoves) {
+        int moves = 0;
+        for (int i = 0; i < report.getEventCount(); i++) {
+            if (report.getAction(i) != MotionEvent.ACTION_MOVE || moves++ < warmUpMoves) {
+                continue;
+            }
+            assertEquals("MOVE event " + i + " allocated.", 0, report.getAllocations(i));
+        }
+    }
+
+    // Moves by step for MOVE_COUNT frames, back for MOVE_COUNT frames, then holds still before UP,
+    // so the release carries no velocity and the stroke can be replayed again.
+    private static byte[] recordStroke(float x, float y, float step) {
+        GestureRecorder recorder = new GestureRecorder();
+        long downTime = SystemClock.uptimeMillis();
+        long eventTime = downTime;
+        record(recorder, downTime, eventTime, MotionEvent.ACTION_DOWN, x, y);
+        for (int i = 0; i < MOVE_COUNT * 2 + HOLD_COUNT; i++) {
+            eventTime += FRAME_MILLIS;
+            if (i < MOVE_COUNT) {
+                y += step;
+            } else if (i < MOVE_COUNT * 2) {
+                y -= step;
+            }
+            record(recorder, downTime, eventTime, MotionEvent.ACTION_MOVE, x, y);
+        }
+        eventTime += FRAME_MILLIS;
+        record(recorder, downTime, eventTime, MotionEvent.ACTION_UP, x, y);
+        return recorder.toByteArray();
+    }
+
+    private static void record(GestureRecorder recorder, long downTime, long eventTime, int action, float x, float y) {
+        MotionEvent motionEvent = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        recorder.record(motionEvent);
+        motionEvent.recycle();
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.mthli.SwitcherPanel.benchmark;
+
+import io.github.mthli.SwitcherPanel.GestureRecording;
+import io.github.mthli.SwitcherPanel.PanelGeometry;
+import io.github.mthli.SwitcherPanel.SettleSpring;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+// Replays a recording through the panel's slide geometry and settle spring only, not through SwitcherPanel itself.
+public class GeometryReplayRunner {
+    private static final String SAMPLE_RECORDING = "/gestures/drag_up.gesture";
+
+    private static final int ACTION_DOWN = 0;
+    private static final int ACTION_UP = 1;
+    private static final int ACTION_MOVE = 2;
+    private static final int ACTION_CANCEL = 3;
+
+    private static final int HEIGHT = 1920;
+    private static final int COVER_HEIGHT = 240;
+    private static final int SLIDE_RANGE = HEIGHT - COVER_HEIGHT;
+    private static final float FRAME_SECONDS = 0.016f;
+    private static final int MAX_SETTLE_FRAMES = 600;
+
+    private static class GeometryModel {
+        private final SettleSpring settleSpring = new SettleSpring();
+        private final int expandedTop = PanelGeometry.computeTopPosition(HEIGHT, 0, COVER_HEIGHT, SLIDE_RANGE, 1f);
+        private final int collapsedTop = PanelGeometry.computeTopPosition(HEIGHT, 0, COVER_HEIGHT, SLIDE_RANGE, 0f);
+        private int top = collapsedTop;
+        private float slideOffset = 0f;
+        private int downTop = 0;
+        private float downY = 0f;
+        private float lastY = 0f;
+        private float velocityY = 0f;
+        private int moves = 0;
+        private int settleFrames = 0;
+
+        private boolean onEvent(int action, float y, int deltaMillis) {
+            switch (action) {
+                case ACTION_DOWN:
+                    settleSpring.stop();
+                    downTop = top;
+                    downY = y;
+                    lastY = y;
+                    velocityY = 0f;
+                    return false;
+                case ACTION_MOVE:
+                    if (deltaMillis > 0) {
+                        velocityY = (y - lastY) * 1000f / deltaMillis;
+                    }
+                    lastY = y;
+                    return moveTo(downTop + (int) (y - downY));
+                case ACTION_UP:
+                case ACTION_CANCEL:
+                    return settle();
+                default:
+                    return false;
+            }
+        }
+
+        private boolean moveTo(int newTop) {
+            newTop = PanelGeometry.clampTop(newTop, expandedTop, collapsedTop);
+            if (newTop == top) {
+                return false;
+            }
+
+            top = newTop;
+            slideOffset = PanelGeometry.computeSlideOffset(collapsedTop, SLIDE_RANGE, top);
+            moves++;
+            return true;
+        }
+
+        private boolean settle() {
+            int target = SettleSpring.chooseTarget(top, velocityY, expandedTop, collapsedTop);
+            if (target == top) {
+                return false;
+            }
+
+            boolean moved = false;
+            settleSpring.start(top, velocityY, target);
+            for (int i = 0; i < MAX_SETTLE_FRAMES && settleSpring.isRunning(); i++) {
+                settleSpring.step(FRAME_SECONDS);
+                settleSpring.clamp(expandedTop, collapsedTop);
+                moved |= moveTo(Math.round(settleSpring.getPosition()));
+                settleFrames++;
+            }
+            return moved;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        InputStream inputStream = args.length > 0
+                ? new FileInputStream(args[0])
+                : GeometryReplayRunner.class.getResourceAsStream(SAMPLE_RECORDING);
+        if (inputStream == null) {
+            throw new IOException("Missing sample recording " + SAMPLE_RECORDING + ".");
+        }
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocationOverhead = threadMXBean.getThreadAllocatedBytes(threadId);
+        allocationOverhead = threadMXBean.getThreadAllocatedBytes(threadId) - allocationOverhead;
+
+        GeometryModel model = new GeometryModel();
+        StringBuilder builder = new StringBuilder("event,action,model_us,allocated_bytes,moved\n");
+        int eventCount = 0;
+        long totalModelNanos = 0L;
+        long totalAllocatedBytes = 0L;
+        try {
+            GestureRecording recording = new GestureRecording(new BufferedInputStream(inputStream));
+            while (recording.next()) {
+                int action = recording.getActionMasked();
+                float y = recording.getPointerCount() > 0 ? recording.getY(0) : 0f;
+
+                long allocStart = threadMXBean.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                boolean moved = model.onEvent(action, y, recording.getDeltaMillis());
+                long elapsed = System.nanoTime() - start;
+                long allocated = Math.max(0L, threadMXBean.getThreadAllocatedBytes(threadId) - allocStart - allocationOverhead);
+
+                builder.append(String.format(Locale.US, "%d,%d,%d,%d,%d\n",
+                        eventCount,
+                        action,
+                        elapsed / 1000L,
+                        allocated,
+                        moved ? 1 : 0));
+                eventCount++;
+                totalModelNanos += elapsed;
+                totalAllocatedBytes += allocated;
+            }
+        } finally {
+            inputStream.close();
+        }
+
+        System.out.print(builder);
+        System.out.println(String.format(Locale.US, "events=%d model_us=%d allocated_bytes=%d moves=%d settle_frames=%d slide_offset=%.3f",
+                eventCount,
+                totalModelNanos / 1000L,
+                totalAllocatedBytes,
+                model.moves,
+                model.settleFrames,
+                model.slideOffset));
+    }
+}
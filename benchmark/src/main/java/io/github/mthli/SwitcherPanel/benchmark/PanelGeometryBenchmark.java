@@ -0,0 +1,66 @@
+package io.github.mthli.SwitcherPanel.benchmark;
+
+import io.github.mthli.SwitcherPanel.PanelGeometry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PanelGeometryBenchmark {
+    private static final int SIZE = 1024;
+    private static final int HEIGHT = 1920;
+    private static final int PADDING_BOTTOM = 0;
+    private static final int COVER_HEIGHT = 384;
+    private static final int SLIDE_RANGE = HEIGHT - COVER_HEIGHT;
+
+    private final float[] offsets = new float[SIZE];
+    private final int[] tops = new int[SIZE];
+    private final int[] dimensions = new int[SIZE];
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            offsets[i] = random.nextFloat() * 1.2f - 0.1f;
+            tops[i] = random.nextInt(HEIGHT + 200) - 100;
+            int kind = random.nextInt(3);
+            dimensions[i] = kind == 0 ? PanelGeometry.MATCH_PARENT : kind == 1 ? PanelGeometry.WRAP_CONTENT : random.nextInt(HEIGHT);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SIZE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public int computeTopPosition() {
+        return PanelGeometry.computeTopPosition(HEIGHT, PADDING_BOTTOM, COVER_HEIGHT, SLIDE_RANGE, offsets[next()]);
+    }
+
+    @Benchmark
+    public float computeSlideOffset() {
+        return PanelGeometry.computeSlideOffset(HEIGHT - PADDING_BOTTOM - COVER_HEIGHT, SLIDE_RANGE, tops[next()]);
+    }
+
+    @Benchmark
+    public int clampTop() {
+        return PanelGeometry.clampTop(tops[next()], PanelGeometry.computeTopPosition(HEIGHT, PADDING_BOTTOM, COVER_HEIGHT, SLIDE_RANGE, 1f),
+                PanelGeometry.computeTopPosition(HEIGHT, PADDING_BOTTOM, COVER_HEIGHT, SLIDE_RANGE, 0f));
+    }
+
+    @Benchmark
+    public void childMeasureSpecs(Blackhole blackhole) {
+        int i = next();
+        blackhole.consume(PanelGeometry.childMeasureSpec(HEIGHT, dimensions[i]));
+        blackhole.consume(PanelGeometry.childMeasureSpec(HEIGHT - COVER_HEIGHT, dimensions[(i + 1) & (SIZE - 1)]));
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.mthli.SwitcherPanel.benchmark;
+
+import io.github.mthli.SwitcherPanel.SwipeDecision;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SwipeDecisionBenchmark {
+    private static final int SIZE = 1024;
+    private static final int VIEW_HEIGHT = 300;
+    private static final int MIN_FLING_VELOCITY = 150;
+    private static final int MAX_FLING_VELOCITY = 24000;
+
+    private final float[] deltas = new float[SIZE];
+    private final float[] velocities = new float[SIZE];
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            deltas[i] = (random.nextFloat() - 0.5f) * 2f * VIEW_HEIGHT;
+            velocities[i] = (random.nextFloat() - 0.5f) * 2f * MAX_FLING_VELOCITY;
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SIZE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public int decide() {
+        int i = next();
+        return SwipeDecision.decide(true, deltas[i], velocities[i], VIEW_HEIGHT, MIN_FLING_VELOCITY, MAX_FLING_VELOCITY);
+    }
+
+    @Benchmark
+    public float computeAlpha() {
+        return SwipeDecision.computeAlpha(deltas[next()], VIEW_HEIGHT);
+    }
+}